@@ -0,0 +1,42 @@
+package jp.dai1741.competitive;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllPairsShortestPathBenchmark {
+
+    @Param({ "random", "grid", "powerlaw" })
+    public String shape;
+
+    @Param({ "100", "400" })
+    public int n;
+
+    BenchmarkGraphs g;
+
+    @Setup
+    public void setUp() {
+        g = new BenchmarkGraphs(shape, n, 8, true);
+    }
+
+    @Benchmark
+    public int[][] warshallFloydMatrixGraph() {
+        return Graphs.warshallFloyd(g.matrixGraph);
+    }
+}
@@ -0,0 +1,63 @@
+package jp.dai1741.competitive;
+
+import jp.dai1741.competitive.GraphGenerators.ArcSink;
+import jp.dai1741.competitive.Graphs.AdjGraph;
+import jp.dai1741.competitive.Graphs.EdgeGraph;
+import jp.dai1741.competitive.Graphs.FlowAdjGraph;
+import jp.dai1741.competitive.Graphs.MatrixGraph;
+
+import static jp.dai1741.competitive.GraphGenerators.distinct;
+import static jp.dai1741.competitive.GraphGenerators.sinkOf;
+
+/**
+ * ベンチマーク用のグラフ。{@link GraphGenerators}の種を固定しているので同じ引数なら毎回同じグラフになる。
+ * MatrixGraphは多重辺を上書きしてしまうので、どの表現にも多重辺は入れず同じグラフにしている。
+ */
+class BenchmarkGraphs {
+    static final long SEED = 42;
+
+    final int n;
+    final MatrixGraph matrixGraph;
+    final AdjGraph adjGraph;
+    final EdgeGraph edgeGraph;
+    final FlowAdjGraph flowAdjGraph;
+
+    /**
+     * @param shape "random"（一様ランダム）、"grid"（格子）、"powerlaw"（R-MAT）、
+     *            "layered"（層状のネットワーク）のいずれか
+     * @param n 頂点数。grid、layeredの場合は少し変わる
+     * @param degree 1頂点あたりの平均出次数。gridでは無視される
+     * @param dense trueならMatrixGraphも作る
+     */
+    BenchmarkGraphs(String shape, int n, int degree, boolean dense) {
+        int side = (int) Math.ceil(Math.sqrt(n));
+        if (shape.equals("grid")) n = side * side;
+        else if (shape.equals("layered")) n = side * side + 2;
+        this.n = n;
+        matrixGraph = dense ? new MatrixGraph(n) : null;
+        adjGraph = new AdjGraph(n);
+        edgeGraph = new EdgeGraph(n);
+        flowAdjGraph = new FlowAdjGraph(n);
+
+        GraphGenerators gen = new GraphGenerators(SEED);
+        ArcSink sink = sinkOf(sinkOf(adjGraph, false), sinkOf(edgeGraph, false), sinkOf(
+                flowAdjGraph, false));
+        if (dense) sink = sinkOf(sink, sinkOf(matrixGraph, false));
+        sink = distinct(sink);
+        if (shape.equals("random")) gen.erdosRenyi(sink, n, (long) n * degree);
+        else if (shape.equals("grid")) gen.grid(sink, side, side);
+        else if (shape.equals("powerlaw")) gen.rmat(sink, n, (long) n * degree);
+        else if (shape.equals("layered")) gen.layeredFlowNetwork(sink, side, side, degree);
+        else throw new IllegalArgumentException("unknown shape: " + shape);
+    }
+
+    /**
+     * 左側[0, n/2)、右側[n/2, n)の無向二部グラフ。左側の各頂点から平均degree本の枝が出る
+     */
+    static AdjGraph bipartite(int n, int degree) {
+        AdjGraph g = new AdjGraph(n);
+        new GraphGenerators(SEED).bipartite(sinkOf(g, true), n / 2, n - n / 2,
+                (long) n / 2 * degree);
+        return g;
+    }
+}
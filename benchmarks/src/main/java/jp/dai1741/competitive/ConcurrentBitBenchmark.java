@@ -0,0 +1,89 @@
+package jp.dai1741.competitive;
+
+import jp.dai1741.competitive.DataStructures.BinaryIndexedTree;
+import jp.dai1741.competitive.DataStructures.ConcurrentBinaryIndexedTree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多数のスレッドから同時に加算したときのスループット。ロックで包んだBinaryIndexedTreeと比べる
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentBitBenchmark {
+
+    @Param({ "1024", "1048576" })
+    public int n;
+
+    @Param({ "1", "4", "16" })
+    public int stripes;
+
+    ConcurrentBinaryIndexedTree concurrent;
+    BinaryIndexedTree locked;
+
+    @Setup
+    public void setUp() {
+        concurrent = new ConcurrentBinaryIndexedTree(n, stripes);
+        locked = new BinaryIndexedTree(n);
+    }
+
+    @State(Scope.Thread)
+    public static class Index {
+        int x = (int) System.nanoTime() | 1;
+
+        int next(int n) {  // xorshift
+            x ^= x << 13;
+            x ^= x >>> 17;
+            x ^= x << 5;
+            return (x & Integer.MAX_VALUE) % n + 1;
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void concurrentAdd(Index index) {
+        concurrent.add(index.next(n), 1);
+    }
+
+    /** 比較用。stripesには依存しない */
+    @Benchmark
+    @Threads(8)
+    public void lockedAdd(Index index) {
+        synchronized (locked) {
+            locked.add(index.next(n), 1);
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(7)
+    public void mixedAdd(Index index) {
+        concurrent.add(index.next(n), 1);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public long mixedSum(Index index) {
+        return concurrent.sum(index.next(n));
+    }
+}
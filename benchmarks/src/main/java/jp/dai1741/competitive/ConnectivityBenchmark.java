@@ -0,0 +1,60 @@
+package jp.dai1741.competitive;
+
+import jp.dai1741.competitive.DataStructures.UnionFindBySize;
+import jp.dai1741.competitive.Graphs.Edge;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectivityBenchmark {
+
+    @Param({ "random", "grid", "powerlaw" })
+    public String shape;
+
+    @Param({ "100000", "1000000" })
+    public int n;
+
+    @Param({ "1", "2", "4", "8" })
+    public int threads;
+
+    BenchmarkGraphs g;
+    int[] components;
+
+    @Setup
+    public void setUp() {
+        g = new BenchmarkGraphs(shape, n, 8, false);
+        components = new int[g.edgeGraph.n];
+    }
+
+    @Benchmark
+    public int concurrentUnionFind() {
+        return Graphs.connectedComponents(g.edgeGraph, components, threads);
+    }
+
+    /** 比較用の逐次版。threadsには依存しない */
+    @Benchmark
+    public int sequentialUnionFind() {
+        UnionFindBySize uf = new UnionFindBySize(g.edgeGraph.n);
+        for (Edge e : g.edgeGraph.edges) {
+            uf.unite(e.from, e.to);
+        }
+        return uf.count();
+    }
+}
@@ -0,0 +1,72 @@
+package jp.dai1741.competitive;
+
+import jp.dai1741.competitive.Graphs.AdjGraph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * フローの関数はグラフを書き換えるので、毎回resetFlow()してから測る。resetFlow()の時間も含まれる。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlowBenchmark {
+
+    @Param({ "random", "grid", "powerlaw", "layered" })
+    public String shape;
+
+    @Param({ "200", "1000" })
+    public int n;
+
+    BenchmarkGraphs g;
+    AdjGraph bipartite;
+    int source, sink, flow;
+
+    @Setup
+    public void setUp() {
+        g = new BenchmarkGraphs(shape, n, 8, false);
+        bipartite = BenchmarkGraphs.bipartite(g.n, 4);
+        source = 0;
+        sink = g.n - 1;
+        flow = Math.max(1, Graphs.edmondsKarp(g.flowAdjGraph, source, sink) / 2);
+        g.flowAdjGraph.resetFlow();
+    }
+
+    @Benchmark
+    public int edmondsKarp() {
+        g.flowAdjGraph.resetFlow();
+        return Graphs.edmondsKarp(g.flowAdjGraph, source, sink);
+    }
+
+    @Benchmark
+    public int minCostFlowWithPrimalDual() {
+        g.flowAdjGraph.resetFlow();
+        return Graphs.minCostFlowWithPrimalDual(g.flowAdjGraph, source, sink, flow);
+    }
+
+    @Benchmark
+    public int minCostFlowWithBellmanFord() {
+        g.flowAdjGraph.resetFlow();
+        return Graphs.minCostFlowWithBellmanFord(g.flowAdjGraph, source, sink, flow);
+    }
+
+    @Benchmark
+    public int bipartiteMatching() {
+        return Graphs.bipartiteMatching(bipartite);
+    }
+}
@@ -0,0 +1,107 @@
+package jp.dai1741.competitive;
+
+import jp.dai1741.competitive.DataStructures.PersistentSegmentTree;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 永続セグメント木の更新と区間k番目の時間、および1回の更新で増えるメモリ量
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistentSegmentTreeBenchmark {
+
+    /** 節点1個の大きさ。left、right(int)とsum(long) */
+    static final int BYTES_PER_NODE = 4 + 4 + 8;
+
+    @Param({ "1024", "1048576" })
+    public int n;
+
+    int[] indices;
+    PersistentSegmentTree tree;
+    int version;
+    int cursor;
+
+    PersistentSegmentTree prefixTree;
+    int[] prefixVersions;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkGraphs.SEED);
+        indices = new int[1 << 16];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = random.nextInt(n);
+        }
+        tree = new PersistentSegmentTree(n);
+        prefixTree = new PersistentSegmentTree(n);
+        prefixVersions = new int[indices.length + 1];
+        for (int i = 0; i < indices.length; i++) {
+            prefixVersions[i + 1] = prefixTree.add(prefixVersions[i], indices[i], 1);
+        }
+    }
+
+    /**
+     * 更新1回あたりに作られた節点数とバイト数。EVENTSなので反復ごとの値がそのまま表示される
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Memory {
+        public long updates;
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            updates = nodes = 0;
+        }
+
+        public double nodesPerUpdate() {
+            return updates == 0 ? 0 : (double) nodes / updates;
+        }
+
+        public double bytesPerUpdate() {
+            return nodesPerUpdate() * BYTES_PER_NODE;
+        }
+    }
+
+    @Benchmark
+    public int update(Memory memory) {
+        int i = cursor++ & (indices.length - 1);
+        if (i == 0) {  // メモリを使い切らないよう一定回数ごとに作り直す
+            tree.clear();
+            version = PersistentSegmentTree.EMPTY;
+        }
+        int before = tree.numNodes();
+        version = tree.add(version, indices[i], 1);
+        memory.updates++;
+        memory.nodes += tree.numNodes() - before;
+        return version;
+    }
+
+    /** 区間の中でk番目に小さい値 */
+    @Benchmark
+    public int rangeKth() {
+        int i = cursor++ & (indices.length - 1);
+        int l = Math.min(i, indices[i] & (indices.length - 1));
+        int r = Math.max(i, indices[i] & (indices.length - 1)) + 1;
+        return prefixTree.kth(prefixVersions[l], prefixVersions[r], (r - l) / 2);
+    }
+}
@@ -0,0 +1,57 @@
+package jp.dai1741.competitive;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShortestPathBenchmark {
+
+    @Param({ "random", "grid", "powerlaw" })
+    public String shape;
+
+    @Param({ "1000", "4000" })
+    public int n;
+
+    BenchmarkGraphs g;
+
+    @Setup
+    public void setUp() {
+        g = new BenchmarkGraphs(shape, n, 8, true);
+    }
+
+    @Benchmark
+    public int[] dijkstraMatrixGraph() {
+        return Graphs.dijkstra(g.matrixGraph, 0);
+    }
+
+    @Benchmark
+    public int[] dijkstraAdjGraph() {
+        return Graphs.dijkstra(g.adjGraph, 0);
+    }
+
+    @Benchmark
+    public int[] bellmanFordAdjGraph() {
+        return Graphs.bellmanFord(g.adjGraph, 0);
+    }
+
+    @Benchmark
+    public int[] bellmanFordEdgeGraph() {
+        return Graphs.bellmanFord(g.edgeGraph, 0);
+    }
+}
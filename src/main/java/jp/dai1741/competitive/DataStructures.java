@@ -4,6 +4,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 
 public class DataStructures {
@@ -75,6 +78,163 @@ public class DataStructures {
         }
     }
 
+    /**
+     * 値をlongで持つBinaryIndexedTree
+     */
+    public static class LongBinaryIndexedTree {
+        final long[] data;
+        final int n;
+
+        public LongBinaryIndexedTree(int n) {
+            this.n = n;
+            data = new long[n + 1];
+        }
+
+        /**
+         * 初期値から作る。n回add()するとO(n log n)だが、各要素を1つ上の区間に足していけばO(n)で済む
+         * 
+         * @param values values[i-1]がi番目の要素になる
+         */
+        public LongBinaryIndexedTree(long[] values) {
+            this(values.length);
+            System.arraycopy(values, 0, data, 1, n);
+            for (int i = 1; i <= n; i++) {
+                int parent = i + (i & -i);
+                if (parent <= n) data[parent] += data[i];
+            }
+        }
+
+        long sum(int i) {
+            checkRange(i);
+            long s = 0;
+            while (i > 0) {
+                s += data[i];
+                i -= i & -i;
+            }
+            return s;
+        }
+
+        private void checkRange(int i) {
+            if (i < 1 || n < i) throw new IllegalArgumentException();
+        }
+
+        void add(int i, long x) {
+            checkRange(i);
+            while (i <= n) {
+                data[i] += x;
+                i += i & -i;
+            }
+        }
+
+        /**
+         * sum(i) >= wとなる最小のiを木を降りてO(log n)で求める。全ての要素が非負であること。
+         * 各要素を個数とすればw番目に小さい要素を求めることになる
+         * 
+         * @return そのようなiがなければn+1
+         */
+        int lowerBound(long w) {
+            int i = 0;
+            for (int k = Integer.highestOneBit(Math.max(n, 1)); k > 0; k >>= 1) {
+                if (i + k <= n && data[i + k] < w) {
+                    w -= data[i + k];
+                    i += k;
+                }
+            }
+            return i + 1;
+        }
+    }
+
+    /**
+     * 値をlongで持つRangeAddableBinaryIndexedTree。sum(i)での掛け算もlongで行うのであふれにくい
+     */
+    public static class LongRangeAddableBinaryIndexedTree {
+        final LongBinaryIndexedTree bit0, bit1;
+        final int n;
+
+        public LongRangeAddableBinaryIndexedTree(int n) {
+            this.n = n;
+            bit0 = new LongBinaryIndexedTree(n);
+            bit1 = new LongBinaryIndexedTree(n);
+        }
+
+        /**
+         * @param values values[i-1]がi番目の要素になる。O(n)
+         */
+        public LongRangeAddableBinaryIndexedTree(long[] values) {
+            n = values.length;
+            bit0 = new LongBinaryIndexedTree(values);
+            bit1 = new LongBinaryIndexedTree(n);
+        }
+
+        long sum(int i) {
+            return bit1.sum(i) * i + bit0.sum(i);
+        }
+
+        void add(int i, long x) {
+            bit0.add(i, x);
+        }
+
+        void addRange(int l, int r, long x) {
+            bit1.add(l, x);
+            bit0.add(l, -x * (l - 1));
+            if (r != n) {
+                bit1.add(r + 1, -x);
+                bit0.add(r + 1, x * r);
+            }
+        }
+    }
+
+    /**
+     * 複数のスレッドからロックなしで加算できるBinaryIndexedTree。
+     * 
+     * 木をstripes本持ち、各スレッドは自分のスレッドIDで選んだ木に加算するので、根に近い節点での競合が減る。
+     * sum()は全ての木を読んで足す。
+     * 
+     * 一貫性について：1回のadd()はsum(i)の経路上のちょうど1つの節点にしか影響しないので、
+     * 各sum()には各add()が完全に反映されるか全く反映されないかのどちらかになる。
+     * ただし並行する複数のadd()のうちどれが反映されるかに順序の保証はない（線形化可能ではない）。
+     * 加算が止まっている間のsum()は正確。
+     */
+    public static class ConcurrentBinaryIndexedTree {
+        final AtomicLongArray data;  // s番目の木のi番目の節点はdata[s * (n + 1) + i]
+        final int n;
+        final int stripes;
+
+        public ConcurrentBinaryIndexedTree(int n) {
+            this(n, 1);
+        }
+
+        public ConcurrentBinaryIndexedTree(int n, int stripes) {
+            this.n = n;
+            this.stripes = stripes;
+            data = new AtomicLongArray(stripes * (n + 1));
+        }
+
+        long sum(int i) {
+            checkRange(i);
+            long s = 0;
+            for (int base = 0; base < data.length(); base += n + 1) {
+                for (int j = i; j > 0; j -= j & -j) {
+                    s += data.get(base + j);
+                }
+            }
+            return s;
+        }
+
+        private void checkRange(int i) {
+            if (i < 1 || n < i) throw new IllegalArgumentException();
+        }
+
+        void add(int i, long x) {
+            checkRange(i);
+            int base = (int) (Thread.currentThread().getId() % stripes) * (n + 1);
+            while (i <= n) {
+                data.getAndAdd(base + i, x);
+                i += i & -i;
+            }
+        }
+    }
+
     public static class BinaryIndexedTree2D {
         final BinaryIndexedTree[] data;
         final int w;
@@ -113,157 +273,1654 @@ public class DataStructures {
     }
 
     /**
-     * ランクを処理していないのでならしO(log n)
-     * 
-     * @see プログラミングコンテストチャレンジブック 第1版 p.81
+     * 1本のlong配列に行優先で値を持つ2次元BinaryIndexedTree。
+     * BinaryIndexedTree2Dと違い行ごとのオブジェクトを作らないので、大きな格子でも確保が1回で済み局所性もよい
      */
-    public static class UnionFind {
-        final int[] data;
+    public static class LongBinaryIndexedTree2D {
+        final long[] data;  // (x, y)はdata[y * (w + 1) + x]
+        final int w;
+        final int h;
 
-        public UnionFind(int size) {
-            data = new int[size];
-            for (int i = 0; i < size; i++) {
-                data[i] = i;
+        public LongBinaryIndexedTree2D(int w, int h) {
+            this.w = w;
+            this.h = h;
+            data = new long[(w + 1) * (h + 1)];
+        }
+
+        /**
+         * 初期値から作る。O(wh)
+         * 
+         * @param values 行優先で、values[(y-1)*w + (x-1)]が(x, y)の要素になる
+         */
+        public LongBinaryIndexedTree2D(int w, int h, long[] values) {
+            this(w, h);
+            int stride = w + 1;
+            for (int y = 1; y <= h; y++) {
+                System.arraycopy(values, (y - 1) * w, data, y * stride + 1, w);
+                for (int x = 1; x <= w; x++) {  // 各行で1次元の場合と同じく親に足す
+                    int parent = x + (x & -x);
+                    if (parent <= w) data[y * stride + parent] += data[y * stride + x];
+                }
+            }
+            for (int y = 1; y <= h; y++) {  // 行ごと親の行に足す
+                int parent = y + (y & -y);
+                if (parent > h) continue;
+                for (int x = 1; x <= w; x++) {
+                    data[parent * stride + x] += data[y * stride + x];
+                }
             }
         }
 
-        int find(int x) {
-            if (data[x] == x) return x;
-            else return data[x] = find(data[x]);
+        /**
+         * @return [1, x]×[1, y]の和
+         */
+        long sum(int x, int y) {
+            checkRange(x, y);
+            return prefixSum(x, y);
         }
 
-        void unite(int x, int y) {
-            data[find(x)] = data[find(y)];
+        /**
+         * @return [x1, x2]×[y1, y2]の和
+         */
+        long sum(int x1, int y1, int x2, int y2) {
+            checkRange(x1, y1);
+            checkRange(x2, y2);
+            return prefixSum(x2, y2) - prefixSum(x1 - 1, y2) - prefixSum(x2, y1 - 1)
+                    + prefixSum(x1 - 1, y1 - 1);
         }
 
-        boolean same(int x, int y) {
-            return find(x) == find(y);
+        private long prefixSum(int x, int y) {
+            long s = 0;
+            for (int j = y; j > 0; j -= j & -j) {
+                int row = j * (w + 1);
+                for (int i = x; i > 0; i -= i & -i) {
+                    s += data[row + i];
+                }
+            }
+            return s;
+        }
+
+        private void checkRange(int x, int y) {
+            if (x < 1 || w < x || y < 1 || h < y) throw new IllegalArgumentException();
+        }
+
+        void add(int x, int y, long v) {
+            checkRange(x, y);
+            for (int j = y; j <= h; j += j & -j) {
+                int row = j * (w + 1);
+                for (int i = x; i <= w; i += i & -i) {
+                    data[row + i] += v;
+                }
+            }
         }
     }
 
     /**
-     * @see http://www.slideshare.net/iwiwi/2-12188757
+     * 長方形への一様加算と長方形の和をO(log w log h)で行う2次元BinaryIndexedTree。
+     * 
+     * 差分d(i, j)について、[1, x]×[1, y]の和は
+     * (x+1)(y+1)Σd - (y+1)Σd・i - (x+1)Σd・j + Σd・i・j
+     * となるので、d、d・i、d・j、d・i・jの4つの木を持つ。
      */
-    static class LazyRMQSegmentTreeNode {
+    public static class LongRangeAddableBinaryIndexedTree2D {
+        final LongBinaryIndexedTree2D bit0, bitX, bitY, bitXY;
+        final int w;
+        final int h;
 
-        int l;
-        int r;
-        int size;
-        // [l, r)
-        int minVal = Integer.MAX_VALUE;
-        LazyRMQSegmentTreeNode left;
-        LazyRMQSegmentTreeNode right;
+        public LongRangeAddableBinaryIndexedTree2D(int w, int h) {
+            this.w = w;
+            this.h = h;
+            bit0 = new LongBinaryIndexedTree2D(w, h);
+            bitX = new LongBinaryIndexedTree2D(w, h);
+            bitY = new LongBinaryIndexedTree2D(w, h);
+            bitXY = new LongBinaryIndexedTree2D(w, h);
+        }
 
+        private void addDiff(int x, int y, long v) {
+            if (x > w || y > h) return;
+            bit0.add(x, y, v);
+            bitX.add(x, y, v * x);
+            bitY.add(x, y, v * y);
+            bitXY.add(x, y, v * x * y);
+        }
 
-        LazyRMQSegmentTreeNode(int l, int r) {
-            this.l = l;
-            this.r = r;
-            size = r - l;
+        /**
+         * [x1, x2]×[y1, y2]の各要素にvを加える
+         */
+        void addRange(int x1, int y1, int x2, int y2, long v) {
+            checkRange(x1, y1);
+            checkRange(x2, y2);
+            addDiff(x1, y1, v);
+            addDiff(x2 + 1, y1, -v);
+            addDiff(x1, y2 + 1, -v);
+            addDiff(x2 + 1, y2 + 1, v);
         }
 
-        void set(int i, int x) {
-            if (l == i && size == 1) {
-                minVal = x;
-                return;
-            }
-            else if (i < l + size / 2) {
-                if (left == null) left = new LazyRMQSegmentTreeNode(l, l + size / 2);
-                left.set(i, x);
-            }
-            else {
-                if (right == null) right = new LazyRMQSegmentTreeNode(l + size / 2, r);
-                right.set(i, x);
-            }
+        void add(int x, int y, long v) {
+            addRange(x, y, x, y, v);
+        }
 
-            minVal = Math.min(left == null ? Integer.MAX_VALUE : left.minVal,
-                    right == null ? Integer.MAX_VALUE : right.minVal);
+        /**
+         * @return [1, x]×[1, y]の和
+         */
+        long sum(int x, int y) {
+            checkRange(x, y);
+            return prefixSum(x, y);
         }
 
-        int minRange(int l, int r) {
-            if (l <= this.l && this.r <= r) {
-                return minVal;
-            }
-            int ret = Integer.MAX_VALUE;
-            if (l < this.l + size / 2 && left != null) {
-                ret = left.minRange(l, r);
-            }
-            if (this.l + size / 2 < r && right != null) {
-                ret = Math.min(ret, right.minRange(l, r));
-            }
-            return ret;
+        /**
+         * @return [x1, x2]×[y1, y2]の和
+         */
+        long sum(int x1, int y1, int x2, int y2) {
+            checkRange(x1, y1);
+            checkRange(x2, y2);
+            return prefixSum(x2, y2) - prefixSum(x1 - 1, y2) - prefixSum(x2, y1 - 1)
+                    + prefixSum(x1 - 1, y1 - 1);
+        }
+
+        private long prefixSum(int x, int y) {
+            if (x == 0 || y == 0) return 0;
+            return (long) (x + 1) * (y + 1) * bit0.sum(x, y) - (long) (y + 1) * bitX.sum(x, y)
+                    - (long) (x + 1) * bitY.sum(x, y) + bitXY.sum(x, y);
+        }
+
+        private void checkRange(int x, int y) {
+            if (x < 1 || w < x || y < 1 || h < y) throw new IllegalArgumentException();
         }
     }
 
     /**
-     * @see プログラミングコンテストチャレンジブック 第1版 p.155
+     * 座標圧縮したオフラインの2次元BinaryIndexedTree。
+     * 
+     * 更新する点を先に全て受け取り、x方向の各節点ごとにそこへ載りうるy座標だけを整列して持つ。
+     * 座標の範囲によらず、メモリはO(n log n)、add()とsum()はO(log^2 n)になる（nは点の数）。
      */
-    static class ArrayRMQSegmentTree {
-        final int n;
-        final int[] tree;
+    public static class OfflineBinaryIndexedTree2D {
+        final int[] xs;  // 整列済みで重複のないx座標
+        final int[] start;  // x方向のi番目の節点のy座標はys[start[i], start[i+1])
+        final int[] ys;
+        final long[] data;  // ysと同じ位置にy方向のBITを持つ
+
+        /**
+         * @param pointXs, pointYs add()で使う点の座標。重複してもよい
+         */
+        public OfflineBinaryIndexedTree2D(int[] pointXs, int[] pointYs) {
+            int n = pointXs.length;
+            int[] sortedXs = pointXs.clone();
+            Arrays.sort(sortedXs);
+            int numXs = 0;
+            for (int i = 0; i < n; i++) {
+                if (numXs == 0 || sortedXs[numXs - 1] != sortedXs[i]) {
+                    sortedXs[numXs++] = sortedXs[i];
+                }
+            }
+            xs = Arrays.copyOf(sortedXs, numXs);
 
+            // 各点が載る節点を数えてから詰める
+            int[] count = new int[numXs + 2];
+            for (int k = 0; k < n; k++) {
+                for (int i = Arrays.binarySearch(xs, pointXs[k]) + 1; i <= numXs; i += i & -i) {
+                    count[i + 1]++;
+                }
+            }
+            for (int i = 1; i <= numXs; i++) {
+                count[i + 1] += count[i];
+            }
+            int[] all = new int[count[numXs + 1]];
+            int[] pos = Arrays.copyOf(count, numXs + 1);
+            for (int k = 0; k < n; k++) {
+                for (int i = Arrays.binarySearch(xs, pointXs[k]) + 1; i <= numXs; i += i & -i) {
+                    all[pos[i]++] = pointYs[k];
+                }
+            }
 
-        ArrayRMQSegmentTree(int size) {
-            n = 1 << 32 - Integer.numberOfLeadingZeros(size - 1);
-            tree = new int[n * 2];
-            Arrays.fill(tree, Integer.MAX_VALUE);
+            // 節点ごとに整列して重複を除く
+            start = new int[numXs + 2];
+            int size = 0;
+            for (int i = 1; i <= numXs; i++) {
+                Arrays.sort(all, count[i], count[i + 1]);
+                start[i] = size;
+                for (int k = count[i]; k < count[i + 1]; k++) {
+                    if (size == start[i] || all[size - 1] != all[k]) all[size++] = all[k];
+                }
+            }
+            start[numXs + 1] = size;
+            ys = Arrays.copyOf(all, size);
+            data = new long[size];
         }
 
-        void set(int i, int x) {
-            i += n - 1;
-            tree[i] = x;
-            do {
-                i = (i - 1) / 2;
-                tree[i] = Math.min(tree[i * 2 + 1], tree[i * 2 + 2]);
-            } while (i > 0);
+        /**
+         * @throws IllegalArgumentException (x, y)がコンストラクタで渡されていない場合
+         */
+        void add(int x, int y, long v) {
+            int i = Arrays.binarySearch(xs, x) + 1;
+            if (i <= 0) throw new IllegalArgumentException();
+            for (; i < start.length - 1; i += i & -i) {
+                int from = start[i], len = start[i + 1] - from;
+                int j = Arrays.binarySearch(ys, from, from + len, y) - from + 1;
+                if (j <= 0) throw new IllegalArgumentException();
+                for (; j <= len; j += j & -j) {
+                    data[from + j - 1] += v;
+                }
+            }
         }
 
         /**
-         * @return minimum value in range [l,r)
+         * @return x' <= xかつy' <= yとなる点(x', y')の和
          */
-        int minRange(int l, int r) {
-            return minRange(l, r, 0, 0, n);
+        long sum(int x, int y) {
+            return sum(upperBound(xs, 0, xs.length, x), Integer.MIN_VALUE, false, y);
         }
 
         /**
-         * @param a 元の範囲の左端
-         * @param b 元の範囲の右端
-         * @param k 現在の節点の番号
-         * @return minimum value in range [ max(l,a), min(r,b) )
+         * @return [x1, x2]×[y1, y2]の和
          */
-        int minRange(int a, int b, int k, int l, int r) {
-            if (r <= a || b <= l) return Integer.MAX_VALUE;
-            if (a <= l && r <= b) return tree[k];
-            return Math.min(minRange(a, b, k * 2 + 1, l, (l + r) / 2), minRange(a, b,
-                    k * 2 + 2, (l + r) / 2, r));
+        long sum(int x1, int y1, int x2, int y2) {
+            if (x1 > x2 || y1 > y2) return 0;
+            return sum(upperBound(xs, 0, xs.length, x2), y1, true, y2)
+                    - sum(lowerBound(xs, 0, xs.length, x1), y1, true, y2);
         }
-    }
 
-    /**
-     * @see http://community.topcoder.com/tc?module=Static&d1=tutorials&d2=lowestCommonAncestor#Sparse_Table_(ST)_algorithm
-     */
-    static class RMQSparseTable {
-        final int[][] st;
+        /**
+         * @return x方向の先頭xRank個の座標の中で、yが[y1, y2]（hasLowerがfalseなら(-∞, y2]）にある点の和
+         */
+        private long sum(int xRank, int y1, boolean hasLower, int y2) {
+            long s = 0;
+            for (int i = xRank; i > 0; i -= i & -i) {
+                int from = start[i], to = start[i + 1];
+                s += prefixSum(from, upperBound(ys, from, to, y2) - from);
+                if (hasLower) s -= prefixSum(from, lowerBound(ys, from, to, y1) - from);
+            }
+            return s;
+        }
 
-        RMQSparseTable(int[] data) {
-            int n = data.length;
-            int lgN = 31 - Integer.numberOfLeadingZeros(n);
-            st = new int[lgN + 1][];
-            st[0] = Arrays.copyOf(data, n);
-            for (int i = 1; i <= lgN; i++) {
-                int blockSize = 1 << i;
-                st[i] = new int[n - blockSize + 1];
-                for (int j = 0; j < n - blockSize + 1; j++) {
-                    st[i][j] = Math.min(st[i - 1][j], st[i - 1][j + blockSize / 2]);
-                }
+        private long prefixSum(int from, int j) {
+            long s = 0;
+            for (; j > 0; j -= j & -j) {
+                s += data[from + j - 1];
             }
+            return s;
         }
 
-        int minRange(int l, int r) {
-            int i = 31 - Integer.numberOfLeadingZeros(r - l);
+        /** [from, to)でa[i] >= keyとなる最小のi */
+        private static int lowerBound(int[] a, int from, int to, int key) {
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (a[mid] < key) from = mid + 1;
+                else to = mid;
+            }
+            return from;
+        }
+
+        /** [from, to)でa[i] > keyとなる最小のi */
+        private static int upperBound(int[] a, int from, int to, int key) {
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (a[mid] <= key) from = mid + 1;
+                else to = mid;
+            }
+            return from;
+        }
+    }
+
+    /**
+     * ランクを処理していないのでならしO(log n)
+     * 
+     * @see プログラミングコンテストチャレンジブック 第1版 p.81
+     */
+    public static class UnionFind {
+        final int[] data;
+
+        public UnionFind(int size) {
+            data = new int[size];
+            for (int i = 0; i < size; i++) {
+                data[i] = i;
+            }
+        }
+
+        int find(int x) {
+            if (data[x] == x) return x;
+            else return data[x] = find(data[x]);
+        }
+
+        void unite(int x, int y) {
+            data[find(x)] = data[find(y)];
+        }
+
+        boolean same(int x, int y) {
+            return find(x) == find(y);
+        }
+    }
+
+    /**
+     * 大きさによる併合と経路の半減を行うUnionFind。ならしO(α(n))
+     * 
+     * 再帰しないので10^6個以上の要素が一列に繋がっていてもスタックを使い切らない。
+     * 
+     * @see プログラミングコンテストチャレンジブック 第1版 p.81
+     */
+    public static class UnionFindBySize {
+        final int[] data;  // 非負なら親、負なら根で-dataが集合の大きさ
+        int count;  // 集合の数
+
+        public UnionFindBySize(int size) {
+            data = new int[size];
+            Arrays.fill(data, -1);
+            count = size;
+        }
+
+        int find(int x) {
+            while (data[x] >= 0) {
+                int parent = data[x];
+                if (data[parent] >= 0) data[x] = data[parent];  // 祖父を親にする
+                x = data[x];
+            }
+            return x;
+        }
+
+        /**
+         * @return 別々の集合を併合したらtrue
+         */
+        boolean unite(int x, int y) {
+            x = find(x);
+            y = find(y);
+            if (x == y) return false;
+            if (data[x] > data[y]) {  // 大きい方をxにする
+                int temp = x;
+                x = y;
+                y = temp;
+            }
+            data[x] += data[y];
+            data[y] = x;
+            count--;
+            return true;
+        }
+
+        boolean same(int x, int y) {
+            return find(x) == find(y);
+        }
+
+        /**
+         * @return xを含む集合の大きさ
+         */
+        int size(int x) {
+            return -data[find(x)];
+        }
+
+        int count() {
+            return count;
+        }
+    }
+
+    /**
+     * 重み付きUnionFind。x_y - x_x = wのような差分制約を逐次追加し、矛盾を検出する。ならしO(α(n))
+     */
+    public static class PotentialUnionFind {
+        final int[] data;  // 非負なら親、負なら根で-dataが集合の大きさ
+        final long[] potential;  // 親のポテンシャルとの差。find()の後は根との差になる
+
+        public PotentialUnionFind(int size) {
+            data = new int[size];
+            Arrays.fill(data, -1);
+            potential = new long[size];
+        }
+
+        int find(int x) {
+            int root = x;
+            long total = 0;
+            while (data[root] >= 0) {
+                total += potential[root];
+                root = data[root];
+            }
+            // 経路上の頂点を全て根につなぎ、根との差を入れる
+            while (data[x] >= 0) {
+                int parent = data[x];
+                long w = potential[x];
+                data[x] = root;
+                potential[x] = total;
+                total -= w;
+                x = parent;
+            }
+            return root;
+        }
+
+        /**
+         * @return 根からのxのポテンシャル
+         */
+        long weight(int x) {
+            find(x);
+            return potential[x];
+        }
+
+        /**
+         * x_y - x_x = wという制約を加える
+         * 
+         * @return 既存の制約と矛盾したらfalse。このとき何も変更しない
+         */
+        boolean unite(int x, int y, long w) {
+            int rx = find(x);
+            int ry = find(y);
+            // rxから見たryのポテンシャル
+            w += potential[x] - potential[y];
+            if (rx == ry) return w == 0;
+            if (data[rx] > data[ry]) {
+                int temp = rx;
+                rx = ry;
+                ry = temp;
+                w = -w;
+            }
+            data[rx] += data[ry];
+            data[ry] = rx;
+            potential[ry] = w;
+            return true;
+        }
+
+        boolean same(int x, int y) {
+            return find(x) == find(y);
+        }
+
+        /**
+         * @return x_y - x_x
+         * @throws IllegalArgumentException xとyが同じ集合にない場合
+         */
+        long diff(int x, int y) {
+            if (!same(x, y)) throw new IllegalArgumentException(x + " and " + y + " are unrelated");
+            return potential[y] - potential[x];
+        }
+
+        int size(int x) {
+            return -data[find(x)];
+        }
+    }
+
+    /**
+     * 併合を取り消せるUnionFind。経路圧縮をしない代わりに大きさによる併合をするのでfindはO(log n)
+     * 
+     * 併合ごとに変更をintのスタックに積み、rollback()では1操作あたりO(1)で戻す。
+     */
+    public static class RollbackUnionFind {
+        final int[] data;  // 非負なら親、負なら根で-dataが集合の大きさ
+        int count;
+        private int[] history = new int[16];  // 子にした根と、その元のdataの組
+        private int historySize;
+
+        public RollbackUnionFind(int size) {
+            data = new int[size];
+            Arrays.fill(data, -1);
+            count = size;
+        }
+
+        int find(int x) {
+            while (data[x] >= 0) {
+                x = data[x];
+            }
+            return x;
+        }
+
+        boolean unite(int x, int y) {
+            x = find(x);
+            y = find(y);
+            if (x == y) return false;
+            if (data[x] > data[y]) {
+                int temp = x;
+                x = y;
+                y = temp;
+            }
+            if (historySize == history.length) history = Arrays.copyOf(history, historySize * 2);
+            history[historySize++] = y;
+            history[historySize++] = data[y];
+            data[x] += data[y];
+            data[y] = x;
+            count--;
+            return true;
+        }
+
+        boolean same(int x, int y) {
+            return find(x) == find(y);
+        }
+
+        int size(int x) {
+            return -data[find(x)];
+        }
+
+        int count() {
+            return count;
+        }
+
+        /**
+         * @return 現在の状態を表す値。rollback()に渡す
+         */
+        int checkpoint() {
+            return historySize;
+        }
+
+        /**
+         * checkpoint()を呼んだ時点の状態に戻す
+         */
+        void rollback(int checkpoint) {
+            while (historySize > checkpoint) {
+                int size = history[--historySize];
+                int y = history[--historySize];
+                data[data[y]] -= size;
+                data[y] = size;
+                count++;
+            }
+        }
+    }
+
+    /**
+     * 複数のスレッドから同時に使えるロックフリーなUnionFind。
+     * 
+     * 根どうしは構築時にランダムに決めた優先度の低い方を高い方の子にすることをCASで行い、失敗したらやり直す。
+     * findは経路の分割（各頂点を祖父につなぎ替える）をCASで行い、失敗しても気にせず進むので待機なしになる。
+     * 優先度がランダムなので、併合の順序によらず木の高さは高い確率でO(log n)になる。
+     * 
+     * @see S. V. Jayanti and R. E. Tarjan, A randomized concurrent algorithm for disjoint set
+     *      union, 2016
+     */
+    public static class ConcurrentUnionFind {
+        final AtomicIntegerArray parent;
+        final int[] priority;  // 頂点番号のランダムな置換。構築後は書き換えない
+
+        public ConcurrentUnionFind(int size) {
+            this(size, new Random());
+        }
+
+        public ConcurrentUnionFind(int size, Random random) {
+            parent = new AtomicIntegerArray(size);
+            priority = new int[size];
+            for (int i = 0; i < size; i++) {
+                parent.set(i, i);
+                int j = random.nextInt(i + 1);
+                priority[i] = priority[j];
+                priority[j] = i;
+            }
+        }
+
+        int find(int x) {
+            while (true) {
+                int p = parent.get(x);
+                if (p == x) return x;
+                int gp = parent.get(p);
+                if (p != gp) parent.compareAndSet(x, p, gp);
+                x = p;
+            }
+        }
+
+        /**
+         * @return このスレッドの操作で別々の集合が併合されたらtrue
+         */
+        boolean unite(int x, int y) {
+            while (true) {
+                x = find(x);
+                y = find(y);
+                if (x == y) return false;
+                if (priority[x] > priority[y]) {
+                    int temp = x;
+                    x = y;
+                    y = temp;
+                }
+                if (parent.compareAndSet(x, x, y)) return true;  // xがまだ根なら成功
+            }
+        }
+
+        /**
+         * 他のスレッドが併合中でも、呼び出しから戻るまでのある時点で正しかった結果を返す
+         */
+        boolean same(int x, int y) {
+            while (true) {
+                x = find(x);
+                y = find(y);
+                if (x == y) return true;
+                if (parent.get(x) == x) return false;  // xが根のままなら別の集合だった
+            }
+        }
+    }
+
+    /**
+     * @see http://www.slideshare.net/iwiwi/2-12188757
+     */
+    static class LazyRMQSegmentTreeNode {
+
+        int l;
+        int r;
+        int size;
+        // [l, r)
+        int minVal = Integer.MAX_VALUE;
+        LazyRMQSegmentTreeNode left;
+        LazyRMQSegmentTreeNode right;
+
+
+        LazyRMQSegmentTreeNode(int l, int r) {
+            this.l = l;
+            this.r = r;
+            size = r - l;
+        }
+
+        void set(int i, int x) {
+            if (l == i && size == 1) {
+                minVal = x;
+                return;
+            }
+            else if (i < l + size / 2) {
+                if (left == null) left = new LazyRMQSegmentTreeNode(l, l + size / 2);
+                left.set(i, x);
+            }
+            else {
+                if (right == null) right = new LazyRMQSegmentTreeNode(l + size / 2, r);
+                right.set(i, x);
+            }
+
+            minVal = Math.min(left == null ? Integer.MAX_VALUE : left.minVal,
+                    right == null ? Integer.MAX_VALUE : right.minVal);
+        }
+
+        int minRange(int l, int r) {
+            if (l <= this.l && this.r <= r) {
+                return minVal;
+            }
+            int ret = Integer.MAX_VALUE;
+            if (l < this.l + size / 2 && left != null) {
+                ret = left.minRange(l, r);
+            }
+            if (this.l + size / 2 < r && right != null) {
+                ret = Math.min(ret, right.minRange(l, r));
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * 巨大な添字の範囲を扱う動的セグメント木。区間への一様加算と区間の和または最小値の取得をO(log size)で行う。
+     * 
+     * 節点はオブジェクトにせず、あらかじめ確保した並列の配列に持つ。足りなくなれば配列を伸ばす。
+     * 加算は子に押し下げず節点に残したままにするので、触れていない部分の節点は作られない。
+     * clear()は配列を使い回すのでゴミを出さない。
+     * 
+     * 和の場合、幅の広い節点の集約値（加算値×区間の幅）はlongに収まらないことがあるが、
+     * 2^64を法として持っているので、質問した区間の本当の和がlongに収まれば結果は正しい。
+     * 答えがlongに収まらない場合は検出せず、2^64を法とした値を返す。
+     */
+    static class DynamicSegmentTree {
+        private static final int NONE = 0;  // 番兵。全要素が0の区間を表す
+        private static final int ROOT = 1;
+
+        final long size;
+        final LongMonoid monoid;
+        private final boolean isSum;
+        private int[] left, right;
+        private long[] value;  // 部分木の集約値（その節点に溜めた加算を含む）
+        private long[] lazy;  // 節点全体に一様に加えた値
+        private int numNodes;
+
+        /**
+         * 要素は[0, size)で、初期値は全て0
+         * 
+         * @param monoid LongMonoid.SUMかLongMonoid.MIN
+         */
+        DynamicSegmentTree(long size, LongMonoid monoid) {
+            this(size, monoid, 1 << 10);
+        }
+
+        /**
+         * @param capacity 最初に確保する節点数
+         */
+        DynamicSegmentTree(long size, LongMonoid monoid, int capacity) {
+            if (monoid != LongMonoid.SUM && monoid != LongMonoid.MIN) {
+                throw new IllegalArgumentException("unsupported monoid");
+            }
+            if (size <= 0 || size > 1L << 62) throw new IllegalArgumentException();
+            this.size = size;
+            this.monoid = monoid;
+            isSum = monoid == LongMonoid.SUM;
+            capacity = Math.max(capacity, 2);
+            left = new int[capacity];
+            right = new int[capacity];
+            value = new long[capacity];
+            lazy = new long[capacity];
+            clear();
+        }
+
+        /**
+         * 全ての要素を0に戻す。確保した配列はそのまま使い回す
+         */
+        void clear() {
+            numNodes = 1;  // NONEの分
+            newNode();
+        }
+
+        int numNodes() {
+            return numNodes;
+        }
+
+        private int newNode() {
+            if (numNodes == left.length) {
+                int capacity = numNodes * 2;
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                value = Arrays.copyOf(value, capacity);
+                lazy = Arrays.copyOf(lazy, capacity);
+            }
+            int k = numNodes++;
+            left[k] = right[k] = NONE;
+            value[k] = lazy[k] = 0;
+            return k;
+        }
+
+        /**
+         * [l, r)の各要素にxを加える。和の場合、x*(r-l)は2^64を法として扱われる
+         */
+        void add(long l, long r, long x) {
+            if (l < r) add(ROOT, 0, size, l, r, x);
+        }
+
+        private void add(int k, long nl, long nr, long l, long r, long x) {
+            if (l <= nl && nr <= r) {
+                lazy[k] += x;
+                value[k] += isSum ? x * (nr - nl) : x;
+                return;
+            }
+            long mid = (nl + nr) >>> 1;
+            if (l < mid) {
+                if (left[k] == NONE) {
+                    int child = newNode();  // 配列が作り直されうるので先に確保する
+                    left[k] = child;
+                }
+                add(left[k], nl, mid, l, r, x);
+            }
+            if (mid < r) {
+                if (right[k] == NONE) {
+                    int child = newNode();
+                    right[k] = child;
+                }
+                add(right[k], mid, nr, l, r, x);
+            }
+            value[k] = monoid.op(value[left[k]], value[right[k]])
+                    + (isSum ? lazy[k] * (nr - nl) : lazy[k]);
+        }
+
+        /**
+         * @return [l, r)の和または最小値。空ならidentity。和がlongに収まらなければ2^64を法とした値
+         */
+        long query(long l, long r) {
+            if (l >= r) return monoid.identity();
+            return query(ROOT, 0, size, l, r);
+        }
+
+        private long query(int k, long nl, long nr, long l, long r) {
+            if (k == NONE) return 0;
+            if (l <= nl && nr <= r) return value[k];
+            long mid = (nl + nr) >>> 1;
+            long ret = monoid.identity();
+            if (l < mid) ret = monoid.op(ret, query(left[k], nl, mid, l, r));
+            if (mid < r) ret = monoid.op(ret, query(right[k], mid, nr, l, r));
+            if (isSum) return ret + lazy[k] * (Math.min(r, nr) - Math.max(l, nl));
+            return ret + lazy[k];
+        }
+    }
+
+    /**
+     * 経路コピーによる永続セグメント木。[0, n)の各要素の和を持つ。
+     * 
+     * 更新のたびに根から葉までの節点だけを複製し、新しい根をその版のハンドルとして返す。
+     * 古い版はそのまま残るので、任意の版に対して区間和やk番目の要素を求められる。
+     * 節点は並列の配列に持ち、1回の更新でO(log n)個（1個16バイト）増える。
+     */
+    static class PersistentSegmentTree {
+        static final int EMPTY = 0;  // 全要素が0の版。子が自分自身を指す番兵でもある
+
+        final int n;
+        private int[] left, right;
+        private long[] sum;
+        private int numNodes = 1;
+
+        PersistentSegmentTree(int n) {
+            this(n, 1 << 10);
+        }
+
+        /**
+         * @param capacity 最初に確保する節点数
+         */
+        PersistentSegmentTree(int n, int capacity) {
+            this.n = n;
+            capacity = Math.max(capacity, 1);
+            left = new int[capacity];
+            right = new int[capacity];
+            sum = new long[capacity];
+        }
+
+        int numNodes() {
+            return numNodes;
+        }
+
+        /**
+         * 全ての版を捨ててEMPTYだけに戻す。確保した配列はそのまま使い回す
+         */
+        void clear() {
+            numNodes = 1;
+        }
+
+        private int copyOf(int k) {
+            if (numNodes == left.length) {
+                int capacity = numNodes * 2;
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                sum = Arrays.copyOf(sum, capacity);
+            }
+            int c = numNodes++;
+            left[c] = left[k];
+            right[c] = right[k];
+            sum[c] = sum[k];
+            return c;
+        }
+
+        /**
+         * @return versionのi番目の要素にxを加えた新しい版
+         */
+        int add(int version, int i, long x) {
+            if (i < 0 || n <= i) throw new IllegalArgumentException();
+            return add(version, 0, n, i, x);
+        }
+
+        private int add(int k, int nl, int nr, int i, long x) {
+            int c = copyOf(k);
+            sum[c] += x;
+            if (nr - nl > 1) {
+                int mid = (nl + nr) >>> 1;
+                if (i < mid) {
+                    int child = add(left[c], nl, mid, i, x);  // 配列が作り直されうるので先に求める
+                    left[c] = child;
+                }
+                else {
+                    int child = add(right[c], mid, nr, i, x);
+                    right[c] = child;
+                }
+            }
+            return c;
+        }
+
+        /**
+         * @return versionの[l, r)の和
+         */
+        long sum(int version, int l, int r) {
+            return sum(version, 0, n, l, r);
+        }
+
+        private long sum(int k, int nl, int nr, int l, int r) {
+            if (k == EMPTY || r <= nl || nr <= l) return 0;
+            if (l <= nl && nr <= r) return sum[k];
+            int mid = (nl + nr) >>> 1;
+            return sum(left[k], nl, mid, l, r) + sum(right[k], mid, nr, l, r);
+        }
+
+        /**
+         * versionの各要素を個数とみなしたときのk番目(0-indexed)の要素
+         * 
+         * @return 要素の添字。要素がk個以下ならn
+         */
+        int kth(int version, long k) {
+            return kth(EMPTY, version, k);
+        }
+
+        /**
+         * newerとolderの差をとった各要素を個数とみなしたときのk番目(0-indexed)の要素。
+         * 数列の接頭辞ごとに値の出現数を加えた版を作っておけば、区間[l, r)の中でk番目に小さい値は
+         * kth(版l, 版r, k)で求まる。各要素の差は非負であること
+         * 
+         * @return 要素の添字。要素がk個以下ならn
+         */
+        int kth(int older, int newer, long k) {
+            if (k < 0 || sum[newer] - sum[older] <= k) return n;
+            int nl = 0, nr = n;
+            while (nr - nl > 1) {
+                int mid = (nl + nr) >>> 1;
+                long count = sum[left[newer]] - sum[left[older]];
+                if (k < count) {
+                    older = left[older];
+                    newer = left[newer];
+                    nr = mid;
+                }
+                else {
+                    k -= count;
+                    older = right[older];
+                    newer = right[newer];
+                    nl = mid;
+                }
+            }
+            return nl;
+        }
+    }
+
+    /**
+     * @see プログラミングコンテストチャレンジブック 第1版 p.155
+     */
+    static class ArrayRMQSegmentTree {
+        final int n;
+        final int[] tree;
+
+
+        ArrayRMQSegmentTree(int size) {
+            n = 1 << 32 - Integer.numberOfLeadingZeros(size - 1);
+            tree = new int[n * 2];
+            Arrays.fill(tree, Integer.MAX_VALUE);
+        }
+
+        void set(int i, int x) {
+            i += n - 1;
+            tree[i] = x;
+            do {
+                i = (i - 1) / 2;
+                tree[i] = Math.min(tree[i * 2 + 1], tree[i * 2 + 2]);
+            } while (i > 0);
+        }
+
+        /**
+         * @return minimum value in range [l,r)
+         */
+        int minRange(int l, int r) {
+            return minRange(l, r, 0, 0, n);
+        }
+
+        /**
+         * @param a 元の範囲の左端
+         * @param b 元の範囲の右端
+         * @param k 現在の節点の番号
+         * @return minimum value in range [ max(l,a), min(r,b) )
+         */
+        int minRange(int a, int b, int k, int l, int r) {
+            if (r <= a || b <= l) return Integer.MAX_VALUE;
+            if (a <= l && r <= b) return tree[k];
+            return Math.min(minRange(a, b, k * 2 + 1, l, (l + r) / 2), minRange(a, b,
+                    k * 2 + 2, (l + r) / 2, r));
+        }
+    }
+
+    /**
+     * intのモノイド。opは結合的で、identityはその単位元であること
+     */
+    interface IntMonoid {
+        int identity();
+
+        int op(int a, int b);
+
+        IntMonoid MIN = new IntMonoid() {
+            @Override
+            public int identity() {
+                return Integer.MAX_VALUE;
+            }
+
+            @Override
+            public int op(int a, int b) {
+                return Math.min(a, b);
+            }
+        };
+        IntMonoid MAX = new IntMonoid() {
+            @Override
+            public int identity() {
+                return Integer.MIN_VALUE;
+            }
+
+            @Override
+            public int op(int a, int b) {
+                return Math.max(a, b);
+            }
+        };
+        IntMonoid SUM = new IntMonoid() {
+            @Override
+            public int identity() {
+                return 0;
+            }
+
+            @Override
+            public int op(int a, int b) {
+                return a + b;
+            }
+        };
+        IntMonoid XOR = new IntMonoid() {
+            @Override
+            public int identity() {
+                return 0;
+            }
+
+            @Override
+            public int op(int a, int b) {
+                return a ^ b;
+            }
+        };
+    }
+
+    /**
+     * longのモノイド。opは結合的で、identityはその単位元であること
+     */
+    interface LongMonoid {
+        long identity();
+
+        long op(long a, long b);
+
+        LongMonoid MIN = new LongMonoid() {
+            @Override
+            public long identity() {
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public long op(long a, long b) {
+                return Math.min(a, b);
+            }
+        };
+        LongMonoid MAX = new LongMonoid() {
+            @Override
+            public long identity() {
+                return Long.MIN_VALUE;
+            }
+
+            @Override
+            public long op(long a, long b) {
+                return Math.max(a, b);
+            }
+        };
+        LongMonoid SUM = new LongMonoid() {
+            @Override
+            public long identity() {
+                return 0;
+            }
+
+            @Override
+            public long op(long a, long b) {
+                return a + b;
+            }
+        };
+        LongMonoid XOR = new LongMonoid() {
+            @Override
+            public long identity() {
+                return 0;
+            }
+
+            @Override
+            public long op(long a, long b) {
+                return a ^ b;
+            }
+        };
+    }
+
+    interface IntPredicate {
+        boolean test(int x);
+    }
+
+    interface LongPredicate {
+        boolean test(long x);
+    }
+
+    /**
+     * 任意のモノイドを載せられる非再帰のセグメント木。葉tree[size + i]からボトムアップに処理する。
+     * 非可換なモノイドでも左右の順序を保つ
+     * 
+     * @see http://codeforces.com/blog/entry/18051
+     */
+    static class IntSegmentTree {
+        final int n;
+        final int size;  // n以上の最小の2べき
+        final int[] tree;
+        final IntMonoid monoid;
+
+        IntSegmentTree(int n, IntMonoid monoid) {
+            this.n = n;
+            this.monoid = monoid;
+            size = n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+            tree = new int[size * 2];
+            Arrays.fill(tree, monoid.identity());
+        }
+
+        /**
+         * O(n)で作る
+         */
+        IntSegmentTree(int[] values, IntMonoid monoid) {
+            this(values.length, monoid);
+            System.arraycopy(values, 0, tree, size, n);
+            for (int k = size - 1; k > 0; k--) {
+                tree[k] = monoid.op(tree[2 * k], tree[2 * k + 1]);
+            }
+        }
+
+        int get(int i) {
+            return tree[size + i];
+        }
+
+        void set(int i, int x) {
+            int k = size + i;
+            tree[k] = x;
+            for (k >>= 1; k > 0; k >>= 1) {
+                tree[k] = monoid.op(tree[2 * k], tree[2 * k + 1]);
+            }
+        }
+
+        /**
+         * @return [l, r)の要素を順にopで畳み込んだ値。空ならidentity
+         */
+        int query(int l, int r) {
+            int left = monoid.identity(), right = monoid.identity();
+            for (l += size, r += size; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) left = monoid.op(left, tree[l++]);
+                if ((r & 1) == 1) right = monoid.op(tree[--r], right);
+            }
+            return monoid.op(left, right);
+        }
+
+        int all() {
+            return tree[1];
+        }
+
+        /**
+         * 二分探索をせずに木を降りてO(log n)で求める
+         * 
+         * @param pred 単調な条件。pred.test(identity)はtrueであること
+         * @return pred.test(query(l, r))がtrueとなる最大のr
+         */
+        int maxRight(int l, IntPredicate pred) {
+            if (l == n) return n;
+            l += size;
+            int acc = monoid.identity();
+            do {
+                while ((l & 1) == 0)
+                    l >>= 1;
+                if (!pred.test(monoid.op(acc, tree[l]))) {
+                    while (l < size) {  // 条件を満たさなくなる葉まで降りる
+                        l *= 2;
+                        if (pred.test(monoid.op(acc, tree[l]))) acc = monoid.op(acc, tree[l++]);
+                    }
+                    return l - size;
+                }
+                acc = monoid.op(acc, tree[l++]);
+            } while ((l & -l) != l);
+            return n;
+        }
+
+        /**
+         * @param pred 単調な条件。pred.test(identity)はtrueであること
+         * @return pred.test(query(l, r))がtrueとなる最小のl
+         */
+        int minLeft(int r, IntPredicate pred) {
+            if (r == 0) return 0;
+            r += size;
+            int acc = monoid.identity();
+            do {
+                r--;
+                while (r > 1 && (r & 1) == 1)
+                    r >>= 1;
+                if (!pred.test(monoid.op(tree[r], acc))) {
+                    while (r < size) {
+                        r = 2 * r + 1;
+                        if (pred.test(monoid.op(tree[r], acc))) acc = monoid.op(tree[r--], acc);
+                    }
+                    return r + 1 - size;
+                }
+                acc = monoid.op(tree[r], acc);
+            } while ((r & -r) != r);
+            return 0;
+        }
+    }
+
+    /**
+     * IntSegmentTreeのlong版
+     */
+    static class LongSegmentTree {
+        final int n;
+        final int size;
+        final long[] tree;
+        final LongMonoid monoid;
+
+        LongSegmentTree(int n, LongMonoid monoid) {
+            this.n = n;
+            this.monoid = monoid;
+            size = n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+            tree = new long[size * 2];
+            Arrays.fill(tree, monoid.identity());
+        }
+
+        LongSegmentTree(long[] values, LongMonoid monoid) {
+            this(values.length, monoid);
+            System.arraycopy(values, 0, tree, size, n);
+            for (int k = size - 1; k > 0; k--) {
+                tree[k] = monoid.op(tree[2 * k], tree[2 * k + 1]);
+            }
+        }
+
+        long get(int i) {
+            return tree[size + i];
+        }
+
+        void set(int i, long x) {
+            int k = size + i;
+            tree[k] = x;
+            for (k >>= 1; k > 0; k >>= 1) {
+                tree[k] = monoid.op(tree[2 * k], tree[2 * k + 1]);
+            }
+        }
+
+        long query(int l, int r) {
+            long left = monoid.identity(), right = monoid.identity();
+            for (l += size, r += size; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) left = monoid.op(left, tree[l++]);
+                if ((r & 1) == 1) right = monoid.op(tree[--r], right);
+            }
+            return monoid.op(left, right);
+        }
+
+        long all() {
+            return tree[1];
+        }
+
+        /**
+         * 二分探索をせずに木を降りてO(log n)で求める
+         * 
+         * @param pred 単調な条件。pred.test(identity)はtrueであること
+         * @return pred.test(query(l, r))がtrueとなる最大のr
+         */
+        int maxRight(int l, LongPredicate pred) {
+            if (l == n) return n;
+            l += size;
+            long acc = monoid.identity();
+            do {
+                while ((l & 1) == 0)
+                    l >>= 1;
+                if (!pred.test(monoid.op(acc, tree[l]))) {
+                    while (l < size) {  // 条件を満たさなくなる葉まで降りる
+                        l *= 2;
+                        if (pred.test(monoid.op(acc, tree[l]))) acc = monoid.op(acc, tree[l++]);
+                    }
+                    return l - size;
+                }
+                acc = monoid.op(acc, tree[l++]);
+            } while ((l & -l) != l);
+            return n;
+        }
+
+        /**
+         * @param pred 単調な条件。pred.test(identity)はtrueであること
+         * @return pred.test(query(l, r))がtrueとなる最小のl
+         */
+        int minLeft(int r, LongPredicate pred) {
+            if (r == 0) return 0;
+            r += size;
+            long acc = monoid.identity();
+            do {
+                r--;
+                while (r > 1 && (r & 1) == 1)
+                    r >>= 1;
+                if (!pred.test(monoid.op(tree[r], acc))) {
+                    while (r < size) {
+                        r = 2 * r + 1;
+                        if (pred.test(monoid.op(tree[r], acc))) acc = monoid.op(tree[r--], acc);
+                    }
+                    return r + 1 - size;
+                }
+                acc = monoid.op(tree[r], acc);
+            } while ((r & -r) != r);
+            return 0;
+        }
+    }
+
+    /**
+     * 区間への一様加算・一様代入と、区間の和・最小値・最大値の取得をO(log n)で行う遅延セグメント木。
+     * 
+     * 節点ごとに要素を作らず、値と遅延させた操作を全てlongとbooleanの配列に持つ。
+     * 操作は根から葉へ向けて必要な節点だけ押し下げてから、葉側からボトムアップに処理する。
+     */
+    static class LongLazySegmentTree {
+        final int n;
+        final int size, log;
+        final long[] tree;
+        final LongMonoid monoid;
+        private final boolean isSum;
+        // 子に押し下げていない操作。代入があれば代入してから加算する
+        private final long[] lazyAdd, lazyAssign;
+        private final boolean[] hasAssign;
+
+        /**
+         * 要素は[0, n)で、初期値は全て0
+         * 
+         * @param monoid LongMonoid.SUM、LongMonoid.MIN、LongMonoid.MAXのいずれか
+         */
+        LongLazySegmentTree(int n, LongMonoid monoid) {
+            if (monoid != LongMonoid.SUM && monoid != LongMonoid.MIN
+                    && monoid != LongMonoid.MAX) {
+                throw new IllegalArgumentException("unsupported monoid");
+            }
+            this.n = n;
+            this.monoid = monoid;
+            isSum = monoid == LongMonoid.SUM;
+            size = n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+            log = Integer.numberOfTrailingZeros(size);
+            tree = new long[size * 2];
+            // 番兵の葉だけを単位元にする。要素の葉を単位元にすると最小値・最大値で加算があふれる
+            Arrays.fill(tree, size + n, size * 2, monoid.identity());
+            for (int k = size - 1; k > 0; k--) {
+                update(k);
+            }
+            lazyAdd = new long[size];
+            lazyAssign = new long[size];
+            hasAssign = new boolean[size];
+        }
+
+        LongLazySegmentTree(long[] values, LongMonoid monoid) {
+            this(values.length, monoid);
+            System.arraycopy(values, 0, tree, size, n);
+            for (int k = size - 1; k > 0; k--) {
+                update(k);
+            }
+        }
+
+        private void update(int k) {
+            tree[k] = monoid.op(tree[2 * k], tree[2 * k + 1]);
+        }
+
+        /** 節点kが表す区間の長さ */
+        private long length(int k) {
+            return size / Integer.highestOneBit(k);
+        }
+
+        private void applyAssign(int k, long x) {
+            tree[k] = isSum ? x * length(k) : x;
+            if (k < size) {
+                hasAssign[k] = true;
+                lazyAssign[k] = x;
+                lazyAdd[k] = 0;
+            }
+        }
+
+        private void applyAdd(int k, long x) {
+            tree[k] += isSum ? x * length(k) : x;
+            if (k < size) {
+                if (hasAssign[k]) lazyAssign[k] += x;
+                else lazyAdd[k] += x;
+            }
+        }
+
+        private void push(int k) {
+            if (hasAssign[k]) {
+                applyAssign(2 * k, lazyAssign[k]);
+                applyAssign(2 * k + 1, lazyAssign[k]);
+                hasAssign[k] = false;
+            }
+            if (lazyAdd[k] != 0) {
+                applyAdd(2 * k, lazyAdd[k]);
+                applyAdd(2 * k + 1, lazyAdd[k]);
+                lazyAdd[k] = 0;
+            }
+        }
+
+        /** [l, r)に関わる節点の遅延させた操作を根から押し下げる */
+        private void pushDown(int l, int r) {
+            for (int i = log; i > 0; i--) {
+                if (((l >> i) << i) != l) push(l >> i);
+                if (((r >> i) << i) != r) push((r - 1) >> i);
+            }
+        }
+
+        long get(int i) {
+            int k = size + i;
+            for (int j = log; j > 0; j--) {
+                push(k >> j);
+            }
+            return tree[k];
+        }
+
+        long query(int l, int r) {
+            if (l >= r) return monoid.identity();
+            l += size;
+            r += size;
+            pushDown(l, r);
+            long left = monoid.identity(), right = monoid.identity();
+            for (; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) left = monoid.op(left, tree[l++]);
+                if ((r & 1) == 1) right = monoid.op(tree[--r], right);
+            }
+            return monoid.op(left, right);
+        }
+
+        /**
+         * 二分探索をせずに木を降りてO(log n)で求める
+         * 
+         * @param pred 単調な条件。pred.test(identity)はtrueであること
+         * @return pred.test(query(l, r))がtrueとなる最大のr
+         */
+        int maxRight(int l, LongPredicate pred) {
+            if (l == n) return n;
+            l += size;
+            for (int i = log; i > 0; i--) {
+                push(l >> i);
+            }
+            long acc = monoid.identity();
+            do {
+                while ((l & 1) == 0)
+                    l >>= 1;
+                if (!pred.test(monoid.op(acc, tree[l]))) {
+                    while (l < size) {  // 条件を満たさなくなる葉まで降りる
+                        push(l);
+                        l *= 2;
+                        if (pred.test(monoid.op(acc, tree[l]))) acc = monoid.op(acc, tree[l++]);
+                    }
+                    return l - size;
+                }
+                acc = monoid.op(acc, tree[l++]);
+            } while ((l & -l) != l);
+            return n;
+        }
+
+        /**
+         * @param pred 単調な条件。pred.test(identity)はtrueであること
+         * @return pred.test(query(l, r))がtrueとなる最小のl
+         */
+        int minLeft(int r, LongPredicate pred) {
+            if (r == 0) return 0;
+            r += size;
+            for (int i = log; i > 0; i--) {
+                push((r - 1) >> i);
+            }
+            long acc = monoid.identity();
+            do {
+                r--;
+                while (r > 1 && (r & 1) == 1)
+                    r >>= 1;
+                if (!pred.test(monoid.op(tree[r], acc))) {
+                    while (r < size) {
+                        push(r);
+                        r = 2 * r + 1;
+                        if (pred.test(monoid.op(tree[r], acc))) acc = monoid.op(tree[r--], acc);
+                    }
+                    return r + 1 - size;
+                }
+                acc = monoid.op(tree[r], acc);
+            } while ((r & -r) != r);
+            return 0;
+        }
+
+        /**
+         * [l, r)の各要素にxを加える
+         */
+        void add(int l, int r, long x) {
+            apply(l, r, false, x);
+        }
+
+        /**
+         * [l, r)の各要素をxにする
+         */
+        void assign(int l, int r, long x) {
+            apply(l, r, true, x);
+        }
+
+        private void apply(int l, int r, boolean assign, long x) {
+            if (l >= r) return;
+            l += size;
+            r += size;
+            pushDown(l, r);
+            for (int a = l, b = r; a < b; a >>= 1, b >>= 1) {
+                if ((a & 1) == 1) {
+                    if (assign) applyAssign(a++, x);
+                    else applyAdd(a++, x);
+                }
+                if ((b & 1) == 1) {
+                    if (assign) applyAssign(--b, x);
+                    else applyAdd(--b, x);
+                }
+            }
+            for (int i = 1; i <= log; i++) {
+                if (((l >> i) << i) != l) update(l >> i);
+                if (((r >> i) << i) != r) update((r - 1) >> i);
+            }
+        }
+    }
+
+    /**
+     * @see http://community.topcoder.com/tc?module=Static&d1=tutorials&d2=lowestCommonAncestor#Sparse_Table_(ST)_algorithm
+     */
+    static class RMQSparseTable {
+        final int[][] st;
+
+        RMQSparseTable(int[] data) {
+            int n = data.length;
+            int lgN = 31 - Integer.numberOfLeadingZeros(n);
+            st = new int[lgN + 1][];
+            st[0] = Arrays.copyOf(data, n);
+            for (int i = 1; i <= lgN; i++) {
+                int blockSize = 1 << i;
+                st[i] = new int[n - blockSize + 1];
+                for (int j = 0; j < n - blockSize + 1; j++) {
+                    st[i][j] = Math.min(st[i - 1][j], st[i - 1][j + blockSize / 2]);
+                }
+            }
+        }
+
+        int minRange(int l, int r) {
+            int i = 31 - Integer.numberOfLeadingZeros(r - l);
             return Math.min(st[i][l], st[i][r - (1 << i)]);
         }
     }
 
+    /**
+     * O(n)のメモリでO(1)で区間最小値を求める。
+     * 
+     * 64要素ずつのブロックに分け、ブロック内は単調スタックの状態をビットマスクで各位置に持ち、
+     * ブロックをまたぐ部分はブロックの最小値の上のスパーステーブルで求める。
+     * RMQSparseTableはn log n個のintを使うが、こちらはおよそ3n個で済む。
+     */
+    static class BlockRMQ {
+        private static final int BLOCK = 64;
+        final int[] data;
+        private final long[] masks;  // masks[i]: ブロックの先頭からiまでの最小値の候補の位置
+        private final int[][] blockSparse;  // ブロックの最小値のスパーステーブル
+
+        BlockRMQ(int[] data) {
+            int n = data.length;
+            this.data = Arrays.copyOf(data, n);
+            masks = new long[n];
+            for (int start = 0; start < n; start += BLOCK) {
+                long stack = 0;
+                for (int i = start; i < Math.min(start + BLOCK, n); i++) {
+                    // iより大きくない値は以降の最小値になれないので取り除く
+                    while (stack != 0
+                            && data[start + 63 - Long.numberOfLeadingZeros(stack)] >= data[i]) {
+                        stack ^= Long.highestOneBit(stack);
+                    }
+                    stack |= 1L << (i - start);
+                    masks[i] = stack;
+                }
+            }
+
+            int numBlocks = (n + BLOCK - 1) / BLOCK;
+            int[] blockMin = new int[numBlocks];
+            for (int b = 0; b < numBlocks; b++) {
+                int end = Math.min((b + 1) * BLOCK, n) - 1;
+                blockMin[b] = this.data[minIndexInBlock(b * BLOCK, end)];
+            }
+            int lg = numBlocks == 0 ? 0 : 31 - Integer.numberOfLeadingZeros(numBlocks);
+            blockSparse = new int[lg + 1][];
+            blockSparse[0] = blockMin;
+            for (int i = 1; i <= lg; i++) {
+                int width = 1 << i;
+                blockSparse[i] = new int[numBlocks - width + 1];
+                for (int j = 0; j < numBlocks - width + 1; j++) {
+                    blockSparse[i][j] = Math.min(blockSparse[i - 1][j],
+                            blockSparse[i - 1][j + width / 2]);
+                }
+            }
+        }
+
+        /** 同じブロックにある[l, r]の最小値の位置 */
+        private int minIndexInBlock(int l, int r) {
+            int start = l & -BLOCK;
+            return start + Long.numberOfTrailingZeros(masks[r] & (-1L << (l - start)));
+        }
+
+        /**
+         * @return [l, r)の最小値
+         */
+        int minRange(int l, int r) {
+            r--;
+            int lb = l / BLOCK, rb = r / BLOCK;
+            if (lb == rb) return data[minIndexInBlock(l, r)];
+            int ret = Math.min(data[minIndexInBlock(l, lb * BLOCK + BLOCK - 1)],
+                    data[minIndexInBlock(rb * BLOCK, r)]);
+            if (lb + 1 < rb) {
+                int i = 31 - Integer.numberOfLeadingZeros(rb - lb - 1);
+                ret = Math.min(ret,
+                        Math.min(blockSparse[i][lb + 1], blockSparse[i][rb - (1 << i)]));
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * 冪等でない演算（和や積など）でも区間の値をO(1)で求めるDisjoint Sparse Table。構築はO(n log n)
+     * 
+     * 段hでは長さ2^hのブロックの中央から左右へ累積した値を持つ。
+     * [l, r]はl^rの最上位ビットの段でちょうど中央をまたぐので、2つの値を合わせれば求まる。
+     */
+    static class DisjointSparseTable {
+        final int n;
+        final LongMonoid monoid;
+        private final int size;
+        private final long[] table;  // 段hのi番目はtable[h * size + i]
+
+        DisjointSparseTable(long[] values, LongMonoid monoid) {
+            n = values.length;
+            this.monoid = monoid;
+            size = n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+            int levels = Integer.numberOfTrailingZeros(size) + 1;
+            table = new long[levels * size];
+            Arrays.fill(table, monoid.identity());
+            System.arraycopy(values, 0, table, 0, n);
+            for (int h = 1; h < levels; h++) {
+                int base = h * size, half = 1 << (h - 1);
+                for (int mid = half; mid < size; mid += 2 * half) {
+                    // 中央から左へ
+                    long acc = monoid.identity();
+                    for (int i = mid - 1; i >= mid - half; i--) {
+                        acc = monoid.op(table[i], acc);
+                        table[base + i] = acc;
+                    }
+                    // 中央から右へ
+                    acc = monoid.identity();
+                    for (int i = mid; i < mid + half; i++) {
+                        acc = monoid.op(acc, table[i]);
+                        table[base + i] = acc;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return [l, r)の要素を順にopで畳み込んだ値。空ならidentity
+         */
+        long query(int l, int r) {
+            if (l >= r) return monoid.identity();
+            r--;
+            if (l == r) return table[l];
+            int h = 32 - Integer.numberOfLeadingZeros(l ^ r);
+            return monoid.op(table[h * size + l], table[h * size + r]);
+        }
+    }
+
     static class BitTrie {  // used here: http://codeforces.com/contest/282/submission/3356004
         BitTrie[] children = new BitTrie[2];
         final int childBit;
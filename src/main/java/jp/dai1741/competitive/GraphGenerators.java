@@ -0,0 +1,216 @@
+package jp.dai1741.competitive;
+
+import jp.dai1741.competitive.Graphs.AdjGraph;
+import jp.dai1741.competitive.Graphs.Edge;
+import jp.dai1741.competitive.Graphs.EdgeGraph;
+import jp.dai1741.competitive.Graphs.FlowAdjGraph;
+import jp.dai1741.competitive.Graphs.MatrixGraph;
+
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * ベンチマークやストレステスト用の乱数グラフ生成器。
+ *
+ * 生成した枝は中間リストを作らずに{@link ArcSink}へ直接流すので、数百万本の枝でもすぐ作れる。
+ * 同じ種と同じ呼び出し順なら毎回同じグラフになる。
+ */
+public class GraphGenerators {
+
+    /**
+     * 生成された枝の受け取り先
+     */
+    interface ArcSink {
+        void arc(int from, int to, int cost, int capacity);
+    }
+
+    final Random random;
+    int maxCost = 1000;  // 枝のコストは[1, maxCost]の一様乱数
+    int maxCapacity = 1000;  // 枝の容量は[1, maxCapacity]の一様乱数
+
+    public GraphGenerators(long seed) {
+        random = new Random(seed);
+    }
+
+    private void emit(ArcSink sink, int from, int to) {
+        sink.arc(from, to, random.nextInt(maxCost) + 1, random.nextInt(maxCapacity) + 1);
+    }
+
+    /**
+     * 一様ランダムな有向グラフG(n, m)。自己ループは作らないが多重辺はありうる
+     */
+    void erdosRenyi(ArcSink sink, int n, long m) {
+        assert n >= 2;
+        for (long i = 0; i < m; i++) {
+            int from = random.nextInt(n);
+            int to = random.nextInt(n - 1);
+            if (to >= from) to++;
+            emit(sink, from, to);
+        }
+    }
+
+    /**
+     * w*hの格子。頂点(x, y)の番号はy*w+xで、隣接する頂点間に両向きの枝を張る
+     */
+    void grid(ArcSink sink, int w, int h) {
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int v = y * w + x;
+                if (x + 1 < w) {
+                    emit(sink, v, v + 1);
+                    emit(sink, v + 1, v);
+                }
+                if (y + 1 < h) {
+                    emit(sink, v, v + w);
+                    emit(sink, v + w, v);
+                }
+            }
+        }
+    }
+
+    /**
+     * R-MATによる次数がべき分布に従う有向グラフ。頂点番号が小さいほど次数が大きくなりやすい。
+     * 自己ループは作らないが多重辺はありうる
+     *
+     * @see http://www.cs.cmu.edu/~christos/PUBLICATIONS/siam04.pdf
+     */
+    void rmat(ArcSink sink, int n, long m) {
+        rmat(sink, n, m, 0.57, 0.19, 0.19);
+    }
+
+    /**
+     * @param a 隣接行列を4分割したときに左上へ進む確率。右上がb、左下がc、右下が残り
+     */
+    void rmat(ArcSink sink, int n, long m, double a, double b, double c) {
+        assert n >= 2;
+        int scale = 32 - Integer.numberOfLeadingZeros(n - 1);
+        for (long i = 0; i < m; i++) {
+            int from, to;
+            do {  // 2べきの範囲で作って範囲外を捨てる
+                from = to = 0;
+                for (int bit = scale - 1; bit >= 0; bit--) {
+                    double p = random.nextDouble();
+                    if (p < a) continue;
+                    if (p < a + b) to |= 1 << bit;
+                    else if (p < a + b + c) from |= 1 << bit;
+                    else {
+                        from |= 1 << bit;
+                        to |= 1 << bit;
+                    }
+                }
+            } while (from >= n || to >= n || from == to);
+            emit(sink, from, to);
+        }
+    }
+
+    /**
+     * 層状のネットワーク。頂点0が始点、頂点layers*width+1が終点で、
+     * 各層の頂点は次の層のdegree個の頂点へ枝を張る。
+     *
+     * @return 頂点数
+     */
+    int layeredFlowNetwork(ArcSink sink, int layers, int width, int degree) {
+        int n = layers * width + 2;
+        int t = n - 1;
+        for (int i = 0; i < width; i++) {
+            emit(sink, 0, 1 + i);
+            emit(sink, 1 + (layers - 1) * width + i, t);
+        }
+        for (int layer = 0; layer + 1 < layers; layer++) {
+            int base = 1 + layer * width;
+            for (int i = 0; i < width; i++) {
+                for (int j = 0; j < degree; j++) {
+                    emit(sink, base + i, base + width + random.nextInt(width));
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * 左側[0, left)から右側[left, left+right)へのm本の枝を持つ二部グラフ
+     */
+    void bipartite(ArcSink sink, int left, int right, long m) {
+        for (long i = 0; i < m; i++) {
+            emit(sink, random.nextInt(left), left + random.nextInt(right));
+        }
+    }
+
+    /*
+     * 各グラフ表現への受け渡し
+     */
+
+    static ArcSink sinkOf(final MatrixGraph g, final boolean undirected) {
+        return new ArcSink() {
+            @Override
+            public void arc(int from, int to, int cost, int capacity) {
+                Edge e = new Edge(from, to, cost, capacity);
+                if (undirected) g.addEdge(e);
+                else g.addArc(e);
+            }
+        };
+    }
+
+    static ArcSink sinkOf(final AdjGraph g, final boolean undirected) {
+        return new ArcSink() {
+            @Override
+            public void arc(int from, int to, int cost, int capacity) {
+                Edge e = new Edge(from, to, cost, capacity);
+                if (undirected) g.addEdge(e);
+                else g.addArc(e);
+            }
+        };
+    }
+
+    static ArcSink sinkOf(final EdgeGraph g, final boolean undirected) {
+        return new ArcSink() {
+            @Override
+            public void arc(int from, int to, int cost, int capacity) {
+                Edge e = new Edge(from, to, cost, capacity);
+                if (undirected) g.addEdge(e);
+                else g.addArc(e);
+            }
+        };
+    }
+
+    static ArcSink sinkOf(final FlowAdjGraph g, final boolean undirected) {
+        return new ArcSink() {
+            @Override
+            public void arc(int from, int to, int cost, int capacity) {
+                if (undirected) {
+                    g.add(from, to, cost, capacity);
+                    g.add(to, from, cost, capacity);
+                }
+                else g.add(from, to, cost, capacity);
+            }
+        };
+    }
+
+    /**
+     * 同じ(from, to)の枝は最初の1本だけ流す。
+     * MatrixGraphは多重辺を上書きするので、他の表現と同じグラフにしたいときに挟む
+     */
+    static ArcSink distinct(final ArcSink sink) {
+        final HashSet<Long> seen = new HashSet<Long>();
+        return new ArcSink() {
+            @Override
+            public void arc(int from, int to, int cost, int capacity) {
+                if (seen.add((long) from << 32 | to)) sink.arc(from, to, cost, capacity);
+            }
+        };
+    }
+
+    /**
+     * 同じ枝を複数のグラフに流す
+     */
+    static ArcSink sinkOf(final ArcSink... sinks) {
+        return new ArcSink() {
+            @Override
+            public void arc(int from, int to, int cost, int capacity) {
+                for (ArcSink sink : sinks) {
+                    sink.arc(from, to, cost, capacity);
+                }
+            }
+        };
+    }
+}
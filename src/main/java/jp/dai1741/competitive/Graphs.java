@@ -1,16 +1,28 @@
 package jp.dai1741.competitive;
 
-import jp.dai1741.competitive.DataStructures.UnionFind;
+import jp.dai1741.competitive.DataStructures.ConcurrentUnionFind;
+import jp.dai1741.competitive.DataStructures.RollbackUnionFind;
+import jp.dai1741.competitive.DataStructures.UnionFindBySize;
 
 import java.awt.geom.IllegalPathStateException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public class Graphs {
     public static final int INF = Integer.MAX_VALUE / 16;
@@ -41,6 +53,16 @@ public class Graphs {
     static class AdjGraph {
         final int n;
         ArrayList<Edge>[] edges;
+        /**
+         * topologicalSort()の結果のキャッシュ。枝を追加すると破棄される。
+         * edgesを直接書き換えた場合はnullにしておくこと
+         */
+        int[] topologicallySorted;
+        /**
+         * addArc()、addEdge()で追加された枝のコストの範囲。minCost > maxCostなら範囲は不明。
+         * edgesを直接書き換えた場合は範囲が正しくなくなるので、Integer.MAX_VALUEとInteger.MIN_VALUEに戻しておくこと
+         */
+        int minCost = Integer.MAX_VALUE, maxCost = Integer.MIN_VALUE;
 
         @SuppressWarnings("unchecked")
         public AdjGraph(int n) {
@@ -53,11 +75,99 @@ public class Graphs {
 
         void addArc(Edge e) {
             edges[e.from].add(e);
+            topologicallySorted = null;
+            minCost = Math.min(minCost, e.cost);
+            maxCost = Math.max(maxCost, e.cost);
         }
 
         void addEdge(Edge e) {
             edges[e.from].add(e);
             edges[e.to].add(e.getInv());
+            topologicallySorted = null;
+            minCost = Math.min(minCost, e.cost);
+            maxCost = Math.max(maxCost, e.cost);
+        }
+    }
+
+    /**
+     * 隣接リストを1本の配列に詰めたもの（Compressed Sparse Row）。
+     * 頂点vから出る枝の番号はhead[v]以上head[v+1]未満で、i番目の枝はto[i]へ向かう。
+     * AdjGraphと違って枝ごとのオブジェクトを持たないので大きなグラフでも省メモリ。
+     */
+    static class CsrGraph {
+        final int n;
+        final int[] head;
+        final int[] to;
+        final int[] cost;
+        final int minCost, maxCost;  // 枝のコストの範囲。枝がなければminCost > maxCost
+
+        /**
+         * 枝の番号はgの隣接リストを頂点順に並べたものになる
+         */
+        CsrGraph(AdjGraph g) {
+            n = g.n;
+            head = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                head[v + 1] = head[v] + g.edges[v].size();
+            }
+            to = new int[head[n]];
+            cost = new int[head[n]];
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for (int v = 0, i = 0; v < n; v++) {
+                for (Edge e : g.edges[v]) {
+                    to[i] = e.to;
+                    cost[i++] = e.cost;
+                    min = Math.min(min, e.cost);
+                    max = Math.max(max, e.cost);
+                }
+            }
+            minCost = min;
+            maxCost = max;
+        }
+
+        /**
+         * 枝の配列から作る。O(V+E)
+         * 
+         * @param cost nullなら全ての枝のコストを1とする
+         * @param m 枝数。配列の先頭m要素を使う
+         */
+        CsrGraph(int n, int[] from, int[] to, int[] cost, int m) {
+            this.n = n;
+            head = new int[n + 1];
+            for (int i = 0; i < m; i++) {
+                head[from[i] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                head[v + 1] += head[v];
+            }
+            this.to = new int[m];
+            this.cost = new int[m];
+            int[] pos = Arrays.copyOf(head, n);
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for (int i = 0; i < m; i++) {  // 計数ソートなので同じ頂点から出る枝の順序は保たれる
+                int j = pos[from[i]]++;
+                int c = cost == null ? 1 : cost[i];
+                this.to[j] = to[i];
+                this.cost[j] = c;
+                min = Math.min(min, c);
+                max = Math.max(max, c);
+            }
+            minCost = min;
+            maxCost = max;
+        }
+
+        int numArcs() {
+            return head[n];
+        }
+
+        /** 全ての枝の向きを逆にしたグラフ */
+        CsrGraph reverse() {
+            int m = numArcs();
+            int[] from = new int[m];
+            for (int v = 0; v < n; v++) {
+                Arrays.fill(from, head[v], head[v + 1], v);
+            }
+            return new CsrGraph(n, to, from, cost, m);
         }
     }
 
@@ -101,6 +211,33 @@ public class Graphs {
         }
     }
 
+    /**
+     * アルゴリズムの仕事量を計測するためのカウンタ。
+     * 対応する関数に渡すと実行中に値が加算されていく。nullを渡せば計測しない。
+     */
+    static class GraphStats {
+        long relaxations;  // 距離が更新された回数
+        long heapPushes;
+        long heapPops;
+        long stalePops;  // 取り出したときにはすでに距離が確定していた要素の数
+        long augmentingPaths;
+        long searchNanos;  // 最短路や増加道の探索にかかった時間
+        long augmentNanos;  // 増加道にフローを流すのにかかった時間
+
+        void reset() {
+            relaxations = heapPushes = heapPops = stalePops = augmentingPaths = 0;
+            searchNanos = augmentNanos = 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("relaxations=%d, heapPushes=%d, heapPops=%d, stalePops=%d, "
+                    + "augmentingPaths=%d, searchNanos=%d, augmentNanos=%d", relaxations,
+                    heapPushes, heapPops, stalePops, augmentingPaths, searchNanos,
+                    augmentNanos);
+        }
+    }
+
     /*
      * Dijkstra
      * 
@@ -135,15 +272,28 @@ public class Graphs {
     }
 
     static int[] dijkstraSub(MatrixGraph g, int s, int t, int[] prev) {
+        return dijkstraSub(g, s, t, prev, null);
+    }
+
+    /**
+     * @param stats 計測結果の加算先。nullなら計測しない
+     */
+    static int[] dijkstraSub(MatrixGraph g, int s, int t, int[] prev, GraphStats stats) {
+        long started = stats != null ? System.nanoTime() : 0;
         int[] dists = new int[g.n];  // 距離
         Arrays.fill(dists, INF);
         dists[s] = 0;
 
         PriorityQueue<EdgeState> queue = new PriorityQueue<EdgeState>();
         queue.add(new EdgeState(0, s));
+        if (stats != null) stats.heapPushes++;
         while (!queue.isEmpty()) {
             EdgeState state = queue.poll();
-            if (dists[state.n] < state.cost) continue;
+            if (stats != null) stats.heapPops++;
+            if (dists[state.n] < state.cost) {
+                if (stats != null) stats.stalePops++;
+                continue;
+            }
             if (state.n == t) break;
             for (int v = 0; v < g.n; v++) {
                 Edge e = g.edges[state.n][v];
@@ -151,9 +301,14 @@ public class Graphs {
                     dists[v] = dists[state.n] + e.cost;
                     if (prev != null) prev[v] = state.n;
                     queue.add(new EdgeState(dists[v], v));
+                    if (stats != null) {
+                        stats.relaxations++;
+                        stats.heapPushes++;
+                    }
                 }
             }
         }
+        if (stats != null) stats.searchNanos += System.nanoTime() - started;
         return dists;
     }
 
@@ -171,27 +326,254 @@ public class Graphs {
     }
 
     static int[] dijkstraSub(AdjGraph g, int s, int t, int[] prev) {
+        return dijkstraSub(g, s, t, prev, null);
+    }
+
+    /**
+     * @param stats 計測結果の加算先。nullなら計測しない
+     */
+    static int[] dijkstraSub(AdjGraph g, int s, int t, int[] prev, GraphStats stats) {
+        long started = stats != null ? System.nanoTime() : 0;
         int[] dists = new int[g.n];
         Arrays.fill(dists, INF);
         dists[s] = 0;
 
         PriorityQueue<EdgeState> queue = new PriorityQueue<EdgeState>();
         queue.add(new EdgeState(0, s));
+        if (stats != null) stats.heapPushes++;
         while (!queue.isEmpty()) {
             EdgeState state = queue.poll();
-            if (dists[state.n] < state.cost) continue;
+            if (stats != null) stats.heapPops++;
+            if (dists[state.n] < state.cost) {
+                if (stats != null) stats.stalePops++;
+                continue;
+            }
             if (state.n == t) break;
             for (Edge e : g.edges[state.n]) {
                 if (dists[e.to] > dists[state.n] + e.cost) {
                     dists[e.to] = dists[state.n] + e.cost;
                     if (prev != null) prev[e.to] = state.n;
                     queue.add(new EdgeState(dists[e.to], e.to));
+                    if (stats != null) {
+                        stats.relaxations++;
+                        stats.heapPushes++;
+                    }
                 }
             }
         }
+        if (stats != null) stats.searchNanos += System.nanoTime() - started;
         return dists;
     }
 
+    /**
+     * Yenの方法でs-t間の短い順にk本の単純路を求める。O(kV(E + V log V))
+     * 
+     * 分岐点からの探索(spur search)は全て同じダイクストラ用の作業領域を使い回し、
+     * 取り除く枝と頂点はグラフを複製せずビット集合で隠す。枝のコストは非負であること。
+     * 経路のコストはlongで足し合わせるので、枝数×枝のコストがintを超えても溢れない。
+     * 
+     * @see http://en.wikipedia.org/wiki/Yen's_algorithm
+     */
+    static class KShortestPaths {
+        final CsrGraph g;
+        final int[] arcFrom;
+        int[][] paths;  // paths[i]: i番目に短い経路の頂点列
+        long[] costs;  // costs[i]: paths[i]のコスト
+
+        // ダイクストラ法の作業領域
+        private final long[] dists;
+        private final int[] prevArc, stamp;
+        private int currentStamp;
+        private final long[] heapDist;  // 距離をキーとする二分ヒープ
+        private final int[] heapVertex;
+        private final long[] removedArcs, removedVertices;
+
+        KShortestPaths(AdjGraph g) {
+            this.g = new CsrGraph(g);
+            int n = g.n;
+            int m = this.g.numArcs();
+            arcFrom = new int[m];
+            for (int v = 0; v < n; v++) {
+                Arrays.fill(arcFrom, this.g.head[v], this.g.head[v + 1], v);
+            }
+            dists = new long[n];
+            prevArc = new int[n];
+            stamp = new int[n];
+            heapDist = new long[m + 1];
+            heapVertex = new int[m + 1];
+            removedArcs = new long[(m >> 6) + 1];
+            removedVertices = new long[(n >> 6) + 1];
+        }
+
+        private static class Candidate implements Comparable<Candidate> {
+            final long cost;
+            final int[] arcs;
+
+            Candidate(long cost, int[] arcs) {
+                this.cost = cost;
+                this.arcs = arcs;
+            }
+
+            @Override
+            public int compareTo(Candidate o) {
+                return cost < o.cost ? -1 : cost > o.cost ? 1 : 0;
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                return o instanceof Candidate && Arrays.equals(arcs, ((Candidate) o).arcs);
+            }
+
+            @Override
+            public int hashCode() {
+                return Arrays.hashCode(arcs);
+            }
+        }
+
+        /**
+         * @return 見つかった経路の数。結果はpaths、costsに入る
+         */
+        int run(int s, int t, int k) {
+            ArrayList<Candidate> found = new ArrayList<Candidate>();
+            if (k <= 0) {
+                paths = new int[0][];
+                costs = new long[0];
+                return 0;
+            }
+            PriorityQueue<Candidate> candidates = new PriorityQueue<Candidate>();
+            HashSet<Candidate> seen = new HashSet<Candidate>();
+            Candidate first = spurSearch(s, t, new int[0], 0, 0);
+            if (first != null) {
+                found.add(first);
+                seen.add(first);
+            }
+            while (0 < found.size() && found.size() < k) {
+                int[] last = found.get(found.size() - 1).arcs;
+                long rootCost = 0;
+                for (int j = 0; j < last.length; j++) {
+                    int spur = arcFrom[last[j]];
+                    // 同じ根を持つ既出の経路の次の枝を取り除く
+                    for (Candidate p : found) {
+                        if (p.arcs.length > j && samePrefix(p.arcs, last, j)) {
+                            removedArcs[p.arcs[j] >> 6] |= 1L << p.arcs[j];
+                        }
+                    }
+                    Candidate c = spurSearch(spur, t, last, j, rootCost);
+                    if (c != null && seen.add(c)) candidates.add(c);
+                    for (Candidate p : found) {
+                        if (p.arcs.length > j) removedArcs[p.arcs[j] >> 6] = 0;
+                    }
+                    // 根の上の頂点は以降の探索で通れない
+                    removedVertices[spur >> 6] |= 1L << spur;
+                    rootCost += g.cost[last[j]];
+                }
+                Arrays.fill(removedVertices, 0);
+                if (candidates.isEmpty()) break;
+                found.add(candidates.poll());
+            }
+
+            paths = new int[found.size()][];
+            costs = new long[found.size()];
+            for (int i = 0; i < found.size(); i++) {
+                int[] arcs = found.get(i).arcs;
+                int[] path = paths[i] = new int[arcs.length + 1];
+                path[0] = s;
+                for (int j = 0; j < arcs.length; j++) {
+                    path[j + 1] = g.to[arcs[j]];
+                }
+                costs[i] = found.get(i).cost;
+            }
+            return found.size();
+        }
+
+        private static boolean samePrefix(int[] a, int[] b, int len) {
+            for (int i = 0; i < len; i++) {
+                if (a[i] != b[i]) return false;
+            }
+            return true;
+        }
+
+        private boolean isRemoved(long[] bits, int i) {
+            return (bits[i >> 6] >>> i & 1) != 0;
+        }
+
+        /**
+         * 取り除かれていない枝と頂点だけを使ってspurからtへの最短路を求め、rootの先頭rootLength本とつなげる
+         * 
+         * @return 見つからなければnull
+         */
+        private Candidate spurSearch(int spur, int t, int[] root, int rootLength, long rootCost) {
+            if (++currentStamp == 0) {  // 一周したら作り直す
+                Arrays.fill(stamp, 0);
+                currentStamp = 1;
+            }
+            int size = 0;
+            stamp[spur] = currentStamp;
+            dists[spur] = 0;
+            prevArc[spur] = -1;
+            heapDist[0] = 0;
+            heapVertex[size++] = spur;
+            boolean reached = false;
+            while (size > 0) {
+                long d = heapDist[0];
+                int v = heapVertex[0];
+                // 末尾を根に移して下ろす
+                long movedDist = heapDist[--size];
+                int movedVertex = heapVertex[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) break;
+                    if (child + 1 < size && heapDist[child + 1] < heapDist[child]) child++;
+                    if (heapDist[child] >= movedDist) break;
+                    heapDist[i] = heapDist[child];
+                    heapVertex[i] = heapVertex[child];
+                    i = child;
+                }
+                if (size > 0) {
+                    heapDist[i] = movedDist;
+                    heapVertex[i] = movedVertex;
+                }
+
+                if (dists[v] < d) continue;
+                if (v == t) {
+                    reached = true;
+                    break;
+                }
+                for (int a = g.head[v]; a < g.head[v + 1]; a++) {
+                    int u = g.to[a];
+                    if (isRemoved(removedArcs, a) || isRemoved(removedVertices, u)) continue;
+                    long nd = d + g.cost[a];
+                    if (stamp[u] != currentStamp || nd < dists[u]) {
+                        stamp[u] = currentStamp;
+                        dists[u] = nd;
+                        prevArc[u] = a;
+                        // 末尾に入れて上げる
+                        int j = size++;
+                        while (j > 0 && heapDist[(j - 1) >> 1] > nd) {
+                            heapDist[j] = heapDist[(j - 1) >> 1];
+                            heapVertex[j] = heapVertex[(j - 1) >> 1];
+                            j = (j - 1) >> 1;
+                        }
+                        heapDist[j] = nd;
+                        heapVertex[j] = u;
+                    }
+                }
+            }
+            if (!reached) return null;
+
+            int spurLength = 0;
+            for (int v = t; prevArc[v] >= 0; v = arcFrom[prevArc[v]]) {
+                spurLength++;
+            }
+            int[] arcs = Arrays.copyOf(root, rootLength + spurLength);
+            for (int v = t, j = arcs.length - 1; prevArc[v] >= 0; v = arcFrom[prevArc[v]]) {
+                arcs[j--] = prevArc[v];
+            }
+            return new Candidate(rootCost + dists[t], arcs);
+        }
+    }
+
     /*
      * ベルマンフォード法
      * 
@@ -205,6 +587,11 @@ public class Graphs {
      * @throws IllegalPathStateException 負の閉路を検出した場合
      */
     static int[] bellmanFord(MatrixGraph g, int s) {
+        return bellmanFord(g, s, null);
+    }
+
+    static int[] bellmanFord(MatrixGraph g, int s, GraphStats stats) {
+        long started = stats != null ? System.nanoTime() : 0;
         int[] dists = new int[g.n];
         Arrays.fill(dists, INF);
         dists[s] = 0;
@@ -214,16 +601,23 @@ public class Graphs {
                     Edge e = g.edges[u][v];
                     if (e != null && dists[u] != INF && dists[v] > dists[u] + e.cost) {
                         dists[v] = dists[u] + e.cost;
+                        if (stats != null) stats.relaxations++;
                         if (i == g.n - 1) throw new IllegalPathStateException(
                                 "negative loop exists");  // この例外の使い方は多分Illegal
                     }
                 }
             }
         }
+        if (stats != null) stats.searchNanos += System.nanoTime() - started;
         return dists;
     }
 
     static int[] bellmanFord(AdjGraph g, int s) {
+        return bellmanFord(g, s, null);
+    }
+
+    static int[] bellmanFord(AdjGraph g, int s, GraphStats stats) {
+        long started = stats != null ? System.nanoTime() : 0;
         int[] dists = new int[g.n];
         Arrays.fill(dists, INF);
         dists[s] = 0;
@@ -232,16 +626,23 @@ public class Graphs {
                 for (Edge e : g.edges[v]) {
                     if (dists[v] != INF && dists[e.to] > dists[v] + e.cost) {
                         dists[e.to] = dists[v] + e.cost;
+                        if (stats != null) stats.relaxations++;
                         if (i == g.n - 1) throw new IllegalPathStateException(
                                 "negative loop exists");
                     }
                 }
             }
         }
+        if (stats != null) stats.searchNanos += System.nanoTime() - started;
         return dists;
     }
 
     static int[] bellmanFord(EdgeGraph g, int s) {
+        return bellmanFord(g, s, null);
+    }
+
+    static int[] bellmanFord(EdgeGraph g, int s, GraphStats stats) {
+        long started = stats != null ? System.nanoTime() : 0;
         int[] dists = new int[g.n];
         Arrays.fill(dists, INF);
         dists[s] = 0;
@@ -250,11 +651,13 @@ public class Graphs {
                 int from = e.from;
                 if (dists[from] != INF && dists[e.to] > dists[from] + e.cost) {
                     dists[e.to] = dists[from] + e.cost;
+                    if (stats != null) stats.relaxations++;
                     if (i == g.n - 1) throw new IllegalPathStateException(
                             "negative loop exists");
                 }
             }
         }
+        if (stats != null) stats.searchNanos += System.nanoTime() - started;
         return dists;
     }
 
@@ -401,17 +804,193 @@ public class Graphs {
                 return o1.cost - o2.cost;
             }
         });
-        UnionFind uf = new UnionFind(g.n);
+        UnionFindBySize uf = new UnionFindBySize(g.n);
         int ret = 0;
         for (Edge e : edges) {
-            if (!uf.same(e.from, e.to)) {
-                uf.unite(e.from, e.to);
-                ret += e.cost;
-            }
+            if (uf.unite(e.from, e.to)) ret += e.cost;
         }
         return ret;
     }
 
+    /**
+     * 複数のスレッドで枝を分担して無向グラフの連結成分を求める。
+     * 
+     * @param g 枝の向きは無視される
+     * @param components i番目の要素に頂点iの連結成分の番号が入る。番号は最小の頂点の順
+     * @return 連結成分数
+     */
+    static int connectedComponents(final EdgeGraph g, int[] components, int numThreads) {
+        final ConcurrentUnionFind uf = new ConcurrentUnionFind(g.n);
+        final int m = g.edges.size();
+        Thread[] threads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            final int from = (int) ((long) m * i / numThreads);
+            final int to = (int) ((long) m * (i + 1) / numThreads);
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = from; j < to; j++) {
+                        Edge e = g.edges.get(j);
+                        uf.unite(e.from, e.to);
+                    }
+                }
+            }, "connectedComponents");
+            threads[i].start();
+        }
+        try {
+            for (Thread t : threads) {
+                t.join();  // join()により各スレッドでの併合が見える
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+
+        int count = 0;
+        Arrays.fill(components, 0, g.n, -1);
+        for (int v = 0; v < g.n; v++) {
+            int root = uf.find(v);
+            if (components[root] < 0) components[root] = count++;
+            components[v] = components[root];
+        }
+        return count;
+    }
+
+    /**
+     * オフラインの動的連結性判定。枝の追加・削除と連結性の質問を先に全て受け取ってからまとめて答える。
+     * 
+     * 各枝が存在する質問の区間を質問番号のセグメント木に載せ、
+     * 木をなぞりながら取り消し可能なUnionFindで併合と巻き戻しを行う。O((Q + E) log Q log V)
+     */
+    static class OfflineDynamicConnectivity {
+        final int n;
+        private final HashMap<Long, ArrayList<Integer>> alive =
+                new HashMap<Long, ArrayList<Integer>>();  // 枝 -> 追加された時点の質問番号
+        private int[] us = new int[16], vs = new int[16], froms = new int[16], tos = new int[16];
+        private int numIntervals;
+        private int[] queryU = new int[16], queryV = new int[16];
+        private int numQueries;
+        // セグメント木の各節点に載る区間の連結リスト
+        private int[] nodeHead, entryNext = new int[16], entryInterval = new int[16];
+        private int numEntries;
+
+        boolean[] connected;  // connected[i]: i番目の質問の答え
+        int[] counts;  // counts[i]: i番目の質問の時点の連結成分数
+
+        OfflineDynamicConnectivity(int n) {
+            this.n = n;
+        }
+
+        private static long key(int u, int v) {
+            return (long) Math.min(u, v) << 32 | Math.max(u, v);
+        }
+
+        void addEdge(int u, int v) {
+            long k = key(u, v);
+            ArrayList<Integer> starts = alive.get(k);
+            if (starts == null) alive.put(k, starts = new ArrayList<Integer>());
+            starts.add(numQueries);
+        }
+
+        /**
+         * @throws IllegalArgumentException 枝がない場合
+         */
+        void removeEdge(int u, int v) {
+            ArrayList<Integer> starts = alive.get(key(u, v));
+            if (starts == null || starts.isEmpty()) {
+                throw new IllegalArgumentException("no such edge: " + u + " " + v);
+            }
+            addInterval(u, v, starts.remove(starts.size() - 1), numQueries);
+        }
+
+        /**
+         * @return 質問番号
+         */
+        int query(int u, int v) {
+            if (numQueries == queryU.length) {
+                queryU = Arrays.copyOf(queryU, numQueries * 2);
+                queryV = Arrays.copyOf(queryV, numQueries * 2);
+            }
+            queryU[numQueries] = u;
+            queryV[numQueries] = v;
+            return numQueries++;
+        }
+
+        private void addInterval(int u, int v, int from, int to) {
+            if (from == to) return;
+            if (numIntervals == us.length) {
+                us = Arrays.copyOf(us, numIntervals * 2);
+                vs = Arrays.copyOf(vs, numIntervals * 2);
+                froms = Arrays.copyOf(froms, numIntervals * 2);
+                tos = Arrays.copyOf(tos, numIntervals * 2);
+            }
+            us[numIntervals] = u;
+            vs[numIntervals] = v;
+            froms[numIntervals] = from;
+            tos[numIntervals++] = to;
+        }
+
+        /**
+         * 全ての質問に答え、結果をconnectedとcountsに入れる。
+         * 削除されていない枝は最後まで存在するものとする
+         */
+        void run() {
+            for (Map.Entry<Long, ArrayList<Integer>> entry : alive.entrySet()) {
+                int u = (int) (entry.getKey() >>> 32);
+                int v = (int) (long) entry.getKey();
+                for (int start : entry.getValue()) {
+                    addInterval(u, v, start, numQueries);
+                }
+            }
+            alive.clear();
+
+            int size = 1;
+            while (size < numQueries)
+                size *= 2;
+            nodeHead = new int[2 * size];
+            Arrays.fill(nodeHead, -1);
+            for (int i = 0; i < numIntervals; i++) {
+                for (int l = froms[i] + size, r = tos[i] + size; l < r; l >>= 1, r >>= 1) {
+                    if ((l & 1) == 1) attach(l++, i);
+                    if ((r & 1) == 1) attach(--r, i);
+                }
+            }
+
+            connected = new boolean[numQueries];
+            counts = new int[numQueries];
+            if (numQueries > 0) visit(1, 0, size, new RollbackUnionFind(n));
+        }
+
+        private void attach(int node, int interval) {
+            if (numEntries == entryNext.length) {
+                entryNext = Arrays.copyOf(entryNext, numEntries * 2);
+                entryInterval = Arrays.copyOf(entryInterval, numEntries * 2);
+            }
+            entryInterval[numEntries] = interval;
+            entryNext[numEntries] = nodeHead[node];
+            nodeHead[node] = numEntries++;
+        }
+
+        private void visit(int node, int l, int r, RollbackUnionFind uf) {
+            if (l >= numQueries) return;
+            int checkpoint = uf.checkpoint();
+            for (int i = nodeHead[node]; i >= 0; i = entryNext[i]) {
+                uf.unite(us[entryInterval[i]], vs[entryInterval[i]]);
+            }
+            if (r - l == 1) {
+                connected[l] = uf.same(queryU[l], queryV[l]);
+                counts[l] = uf.count();
+            }
+            else {
+                int mid = (l + r) >>> 1;
+                visit(2 * node, l, mid, uf);
+                visit(2 * node + 1, mid, r, uf);
+            }
+            uf.rollback(checkpoint);
+        }
+    }
+
     /*
      * 最大流
      * 
@@ -478,9 +1057,16 @@ public class Graphs {
     }
 
     static int edmondsKarp(FlowAdjGraph g, int s, int t) {
+        return edmondsKarp(g, s, t, null);
+    }
+
+    static int edmondsKarp(FlowAdjGraph g, int s, int t, GraphStats stats) {
         int flow = 0;
         while (true) {
+            long started = stats != null ? System.nanoTime() : 0;
             ArrayList<ResidualEdge> path = findAugmentedPath(g.edges, s, t);
+            long found = stats != null ? System.nanoTime() : 0;
+            if (stats != null) stats.searchNanos += found - started;
             if (path == null) break;
             int augedFlow = Integer.MAX_VALUE;
             for (ResidualEdge e : path) {
@@ -491,6 +1077,10 @@ public class Graphs {
                 e.reversedEdge.residual += augedFlow;
             }
             flow += augedFlow;
+            if (stats != null) {
+                stats.augmentingPaths++;
+                stats.augmentNanos += System.nanoTime() - found;
+            }
         }
         return flow;
     }
@@ -532,6 +1122,258 @@ public class Graphs {
         return path;
     }
 
+    /**
+     * Dinic法。O(EV^2)だが実際にはずっと速い
+     */
+    static int dinic(FlowAdjGraph g, int s, int t) {
+        int n = g.numNodes;
+        int[] level = new int[n];
+        int[] iter = new int[n];  // 各頂点で次に見る枝
+        int[] queue = new int[n];
+        ResidualEdge[] path = new ResidualEdge[n];
+        int flow = 0;
+        while (true) {
+            // 始点からの距離で層別する
+            Arrays.fill(level, -1);
+            level[s] = 0;
+            int head = 0, tail = 0;
+            queue[tail++] = s;
+            while (head < tail) {
+                int v = queue[head++];
+                for (ResidualEdge e : g.edges[v]) {
+                    if (e.residual > 0 && level[e.to] < 0) {
+                        level[e.to] = level[v] + 1;
+                        queue[tail++] = e.to;
+                    }
+                }
+            }
+            if (level[t] < 0) return flow;
+            Arrays.fill(iter, 0);
+            int f;
+            while ((f = dinicDfs(g, s, t, level, iter, path)) > 0) {
+                flow += f;
+            }
+        }
+    }
+
+    /**
+     * sからtへの増加路を1本探して流す。深い層でスタックが溢れないよう、
+     * 再帰の代わりにpathに辿った枝を積み、iterを各頂点のカーソルとして使う。
+     * 
+     * @return 流した量。増加路がなければ0
+     */
+    private static int dinicDfs(FlowAdjGraph g, int s, int t, int[] level, int[] iter,
+            ResidualEdge[] path) {
+        int depth = 0;
+        int v = s;
+        while (true) {
+            if (v == t) {
+                int f = Integer.MAX_VALUE;
+                for (int i = 0; i < depth; i++)
+                    f = Math.min(f, path[i].residual);
+                for (int i = 0; i < depth; i++) {
+                    path[i].residual -= f;
+                    path[i].reversedEdge.residual += f;
+                }
+                return f;
+            }
+            ArrayList<ResidualEdge> edges = g.edges[v];
+            ResidualEdge next = null;
+            for (; iter[v] < edges.size(); iter[v]++) {
+                ResidualEdge e = edges.get(iter[v]);
+                if (e.residual > 0 && level[v] < level[e.to]) {
+                    next = e;
+                    break;
+                }
+            }
+            if (next != null) {
+                path[depth++] = next;
+                v = next.to;
+            }
+            else {
+                // 行き止まりなので1つ戻り、その枝は以後使わない
+                if (depth == 0) return 0;
+                v = path[--depth].from;
+                iter[v]++;
+            }
+        }
+    }
+
+    /**
+     * 無向ネットワークの全点対最小カットを表す木（Gusfieldの方法）。最大流をn-1回求めるのでO(V)回のDinic。
+     * 
+     * 木の上のu-v間のパスにある枝の重みの最小値が、元のグラフのu-v間の最小カットの大きさになる。
+     * パス上の最小値はダブリングでO(log V)で求める。
+     * 
+     * @see D. Gusfield, Very simple methods for all pairs network flow analysis, 1990
+     */
+    static class GomoryHuTree {
+        final int n;
+        final int[] parent;  // 頂点0が根で、parent[v] < vとなる
+        final int[] weight;  // weight[v]: vとparent[v]を結ぶ枝の重み
+        final int[] depth;
+        final int[][] ancestor;  // ancestor[k][v]: vの2^k個上の祖先
+        final int[][] pathMin;  // pathMin[k][v]: vから2^k個上までの枝の重みの最小値
+
+        /**
+         * @param g 無向ネットワーク（addEdge()で作ったもの）。フローは書き換えられる
+         */
+        GomoryHuTree(FlowAdjGraph g) {
+            n = g.numNodes;
+            parent = new int[n];
+            weight = new int[n];
+            if (n > 0) weight[0] = INF;
+            boolean[] reachable = new boolean[n];
+            int[] queue = new int[n];
+            for (int s = 1; s < n; s++) {
+                int t = parent[s];
+                g.resetFlow();
+                weight[s] = dinic(g, s, t);
+
+                // 残余グラフでsから辿れる頂点がカットのs側
+                Arrays.fill(reachable, false);
+                reachable[s] = true;
+                int head = 0, tail = 0;
+                queue[tail++] = s;
+                while (head < tail) {
+                    for (ResidualEdge e : g.edges[queue[head++]]) {
+                        if (e.residual > 0 && !reachable[e.to]) {
+                            reachable[e.to] = true;
+                            queue[tail++] = e.to;
+                        }
+                    }
+                }
+                for (int v = s + 1; v < n; v++) {
+                    if (parent[v] == t && reachable[v]) parent[v] = s;
+                }
+            }
+
+            int log = 1;
+            while (1 << log < n)
+                log++;
+            depth = new int[n];
+            ancestor = new int[log][n];
+            pathMin = new int[log][n];
+            for (int v = 0; v < n; v++) {
+                depth[v] = v == 0 ? 0 : depth[parent[v]] + 1;
+                ancestor[0][v] = parent[v];
+                pathMin[0][v] = weight[v];
+            }
+            for (int k = 1; k < log; k++) {
+                for (int v = 0; v < n; v++) {
+                    int mid = ancestor[k - 1][v];
+                    ancestor[k][v] = ancestor[k - 1][mid];
+                    pathMin[k][v] = Math.min(pathMin[k - 1][v], pathMin[k - 1][mid]);
+                }
+            }
+        }
+
+        /**
+         * @return u-v間の最小カット。u==vならINF
+         */
+        int minCut(int u, int v) {
+            int ret = INF;
+            if (depth[u] < depth[v]) {
+                int temp = u;
+                u = v;
+                v = temp;
+            }
+            for (int k = ancestor.length - 1; k >= 0; k--) {  // 深さを揃える
+                if (depth[u] - depth[v] >= 1 << k) {
+                    ret = Math.min(ret, pathMin[k][u]);
+                    u = ancestor[k][u];
+                }
+            }
+            if (u == v) return ret;
+            for (int k = ancestor.length - 1; k >= 0; k--) {
+                if (ancestor[k][u] != ancestor[k][v]) {
+                    ret = Math.min(ret, Math.min(pathMin[k][u], pathMin[k][v]));
+                    u = ancestor[k][u];
+                    v = ancestor[k][v];
+                }
+            }
+            return Math.min(ret, Math.min(weight[u], weight[v]));
+        }
+    }
+
+    /**
+     * Stoer-Wagner法で無向グラフの全域最小カットを求める。O(V^3)
+     * 
+     * 最大流を使わず、最も強く結びついた頂点を順に加えていき、最後の2頂点を縮約することを繰り返す。
+     * 
+     * @param g 無向グラフ（addEdge()で作ったもの）。他のMatrixGraphのアルゴリズムと同じく枝のコストを重みとする
+     * @param partition nullでなければ、カットの片側の頂点がtrueになる
+     * @return 最小カットの大きさ。頂点が1つ以下ならINF
+     * @see M. Stoer and F. Wagner, A simple min-cut algorithm, 1997
+     */
+    static int stoerWagner(MatrixGraph g, boolean[] partition) {
+        int n = g.n;
+        int[] weight = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                Edge e = g.edges[i][j];
+                if (i != j && e != null) weight[i * n + j] = e.cost;
+            }
+        }
+        int[] alive = new int[n];  // 縮約されずに残っている頂点
+        int[] next = new int[n];  // 縮約された頂点の連結リスト
+        int[] tail = new int[n];
+        for (int v = 0; v < n; v++) {
+            alive[v] = tail[v] = v;
+            next[v] = -1;
+        }
+        int[] key = new int[n];
+        boolean[] added = new boolean[n];
+        int best = INF;
+        for (int phase = n; phase > 1; phase--) {
+            for (int i = 0; i < phase; i++) {
+                key[alive[i]] = 0;
+                added[alive[i]] = false;
+            }
+            int prev = -1, last = -1;
+            for (int k = 0; k < phase; k++) {
+                int v = -1;
+                for (int i = 0; i < phase; i++) {
+                    int u = alive[i];
+                    if (!added[u] && (v < 0 || key[u] > key[v])) v = u;
+                }
+                added[v] = true;
+                prev = last;
+                last = v;
+                for (int i = 0; i < phase; i++) {
+                    key[alive[i]] += weight[v * n + alive[i]];
+                }
+            }
+
+            if (key[last] < best) {  // lastとそれ以外を分けるカット
+                best = key[last];
+                if (partition != null) {
+                    Arrays.fill(partition, false);
+                    for (int v = last; v >= 0; v = next[v]) {
+                        partition[v] = true;
+                    }
+                }
+            }
+
+            // lastをprevに縮約する
+            for (int i = 0; i < phase; i++) {
+                int u = alive[i];
+                weight[prev * n + u] += weight[last * n + u];
+                weight[u * n + prev] = weight[prev * n + u];
+            }
+            weight[prev * n + prev] = 0;
+            next[tail[prev]] = last;
+            tail[prev] = tail[last];
+            for (int i = 0; i < phase; i++) {
+                if (alive[i] == last) {
+                    alive[i] = alive[phase - 1];
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
     /**
      * @param g 無向二部グラフ。各枝の重みは1として扱われる
      * @see プログラミングコンテストチャレンジブック 第1版 p.196
@@ -578,11 +1420,19 @@ public class Graphs {
      * @see プログラミングコンテストチャレンジブック 第1版 p.202
      */
     static int minCostFlowWithPrimalDual(FlowAdjGraph g, int s, int t, int f) {
+        return minCostFlowWithPrimalDual(g, s, t, f, null);
+    }
+
+    static int minCostFlowWithPrimalDual(FlowAdjGraph g, int s, int t, int f,
+            GraphStats stats) {
         int[] lastShortestDists = new int[g.numNodes];
         int minCost = 0;
         while (f > 0) {
+            long started = stats != null ? System.nanoTime() : 0;
             ArrayList<ResidualEdge> path = minCostFlowWithPrimalDualSub(g.edges,
-                    lastShortestDists, s, t);
+                    lastShortestDists, s, t, stats);
+            long found = stats != null ? System.nanoTime() : 0;
+            if (stats != null) stats.searchNanos += found - started;
             if (path == null) return -1;
             int augedFlow = f;
             for (ResidualEdge e : path) {
@@ -594,12 +1444,17 @@ public class Graphs {
                 minCost += e.cost * augedFlow;
             }
             f -= augedFlow;
+            if (stats != null) {
+                stats.augmentingPaths++;
+                stats.augmentNanos += System.nanoTime() - found;
+            }
         }
         return minCost;
     }
 
     private static ArrayList<ResidualEdge> minCostFlowWithPrimalDualSub(
-            ArrayList<ResidualEdge>[] edges, int[] lastShortestDists, int s, int t) {
+            ArrayList<ResidualEdge>[] edges, int[] lastShortestDists, int s, int t,
+            GraphStats stats) {
         int n = edges.length;
         ResidualEdge[] prevE = new ResidualEdge[n];
         int[] prevV = new int[n];
@@ -610,11 +1465,16 @@ public class Graphs {
         prevV[s] = -2;  // make sure source is not rediscovered
         PriorityQueue<EdgeState> queue = new PriorityQueue<EdgeState>();
         queue.add(new EdgeState(0, s));
+        if (stats != null) stats.heapPushes++;
 
         while (!queue.isEmpty()) {
             EdgeState state = queue.poll();
             int v = state.n;
-            if (dist[v] < state.cost) continue;
+            if (stats != null) stats.heapPops++;
+            if (dist[v] < state.cost) {
+                if (stats != null) stats.stalePops++;
+                continue;
+            }
             for (ResidualEdge e : edges[v]) {
                 if (e.residual > 0
                         && dist[e.to] > dist[v] + e.cost + lastShortestDists[v]
@@ -624,6 +1484,10 @@ public class Graphs {
                     prevE[e.to] = e;
                     prevV[e.to] = v;
                     queue.add(new EdgeState(dist[e.to], e.to));
+                    if (stats != null) {
+                        stats.relaxations++;
+                        stats.heapPushes++;
+                    }
                 }
             }
         }
@@ -645,9 +1509,17 @@ public class Graphs {
      * @see プログラミングコンテストチャレンジブック 第1版 p.199
      */
     static int minCostFlowWithBellmanFord(FlowAdjGraph g, int s, int t, int f) {
+        return minCostFlowWithBellmanFord(g, s, t, f, null);
+    }
+
+    static int minCostFlowWithBellmanFord(FlowAdjGraph g, int s, int t, int f,
+            GraphStats stats) {
         int minCost = 0;
         while (f > 0) {
-            ArrayList<ResidualEdge> path = minCostFlowWithBellmanFordSub(g.edges, s, t);
+            long started = stats != null ? System.nanoTime() : 0;
+            ArrayList<ResidualEdge> path = minCostFlowWithBellmanFordSub(g.edges, s, t, stats);
+            long found = stats != null ? System.nanoTime() : 0;
+            if (stats != null) stats.searchNanos += found - started;
             if (path == null) return -1;  // failed!
             int augedFlow = f;
             for (ResidualEdge e : path) {
@@ -659,12 +1531,16 @@ public class Graphs {
                 minCost += e.cost * augedFlow;
             }
             f -= augedFlow;
+            if (stats != null) {
+                stats.augmentingPaths++;
+                stats.augmentNanos += System.nanoTime() - found;
+            }
         }
         return minCost;
     }
 
     private static ArrayList<ResidualEdge> minCostFlowWithBellmanFordSub(
-            ArrayList<ResidualEdge>[] edges, int s, int t) {
+            ArrayList<ResidualEdge>[] edges, int s, int t, GraphStats stats) {
         int n = edges.length;
         ResidualEdge[] prevE = new ResidualEdge[n];
         int[] prevV = new int[n];
@@ -680,6 +1556,7 @@ public class Graphs {
                         dist[e.to] = dist[v] + e.cost;
                         prevE[e.to] = e;
                         prevV[e.to] = v;
+                        if (stats != null) stats.relaxations++;
                     }
                 }
             }
@@ -756,6 +1633,145 @@ public class Graphs {
         }
     }
 
+    /**
+     * Tarjanの方法による強連結成分分解。O(V+E)
+     * 
+     * 再帰を使わないので頂点数が多くてもスタックオーバーフローしない。
+     * 
+     * @param components i番目の要素に頂点iのトポロジカル順序が入る
+     * @return 強連結成分数
+     */
+    static int decomposeIntoStronglyConnectedComponents(CsrGraph g, int[] components) {
+        return tarjan(g.n, g.head, g.to, components);
+    }
+
+    /**
+     * @param head 頂点vから出る枝の行き先はto[head[v]...head[v+1]-1]
+     */
+    private static int tarjan(int n, int[] head, int[] to, int[] components) {
+        int[] order = new int[n];
+        int[] lowlink = new int[n];
+        int[] cursor = new int[n];
+        int[] vStack = new int[n];  // 連結成分の候補の頂点のスタック
+        int[] callStack = new int[n];  // 再帰の代わり
+        Arrays.fill(order, -1);
+        Arrays.fill(components, 0, n, -1);  // 訪問済みで成分が未確定 ⇔ vStackに入っている
+        int curOrder = 0, k = 0;
+        for (int r = 0; r < n; r++) {
+            if (order[r] != -1) continue;
+            int sp = 0, csp = 0;
+            order[r] = lowlink[r] = curOrder++;
+            cursor[r] = head[r];
+            vStack[sp++] = r;
+            callStack[csp++] = r;
+            while (csp > 0) {
+                int v = callStack[csp - 1];
+                if (cursor[v] < head[v + 1]) {
+                    int u = to[cursor[v]++];
+                    if (order[u] == -1) {
+                        order[u] = lowlink[u] = curOrder++;
+                        cursor[u] = head[u];
+                        vStack[sp++] = u;
+                        callStack[csp++] = u;
+                    }
+                    else if (components[u] == -1) {
+                        lowlink[v] = Math.min(lowlink[v], order[u]);
+                    }
+                    continue;
+                }
+                csp--;
+                if (order[v] == lowlink[v]) {
+                    while (true) {
+                        int u = vStack[--sp];
+                        components[u] = k;
+                        if (u == v) break;
+                    }
+                    k++;
+                }
+                if (csp > 0) {
+                    int p = callStack[csp - 1];
+                    lowlink[p] = Math.min(lowlink[p], lowlink[v]);
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {  // 成分は後ろのものから確定するので逆順にする
+            components[v] = k - 1 - components[v];
+        }
+        return k;
+    }
+
+    /**
+     * 2-SAT。O(変数の数 + 節の数)
+     * 
+     * リテラルは変数xが真であることをx、偽であることを~x（= -x-1）で表す。
+     * 含意グラフは配列だけで作るので、節が数千万あっても扱える。
+     */
+    static class TwoSat {
+        final int numVars;
+        int numClauses;
+        int[] clauses;  // i番目の節はclauses[2i] ∨ clauses[2i+1]
+
+        TwoSat(int numVars) {
+            this(numVars, 16);
+        }
+
+        TwoSat(int numVars, int expectedClauses) {
+            this.numVars = numVars;
+            clauses = new int[Math.max(2, expectedClauses * 2)];
+        }
+
+        /** a ∨ b を追加する */
+        void addClause(int a, int b) {
+            assert (a < 0 ? ~a : a) < numVars && (b < 0 ? ~b : b) < numVars;
+            if (numClauses * 2 == clauses.length) clauses = Arrays.copyOf(clauses,
+                    clauses.length * 2);
+            clauses[numClauses * 2] = a;
+            clauses[numClauses * 2 + 1] = b;
+            numClauses++;
+        }
+
+        /** a → b を追加する */
+        void addImplication(int a, int b) {
+            addClause(~a, b);
+        }
+
+        /** リテラルに対応する含意グラフの頂点。xは2x、~xは2x+1 */
+        private static int node(int literal) {
+            return literal >= 0 ? literal * 2 : ~literal * 2 + 1;
+        }
+
+        /**
+         * @return 各変数の値。充足不能ならnull
+         */
+        boolean[] solve() {
+            int n = numVars * 2;
+            int m = numClauses * 2;
+            // a ∨ b を ¬a → b と ¬b → a にする
+            int[] head = new int[n + 1];
+            for (int i = 0; i < m; i++) {
+                head[(node(clauses[i]) ^ 1) + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                head[v + 1] += head[v];
+            }
+            int[] to = new int[m];
+            int[] pos = Arrays.copyOf(head, n);
+            for (int i = 0; i < m; i++) {
+                to[pos[node(clauses[i]) ^ 1]++] = node(clauses[i ^ 1]);
+            }
+
+            int[] components = new int[n];
+            tarjan(n, head, to, components);
+            boolean[] ret = new boolean[numVars];
+            for (int x = 0; x < numVars; x++) {
+                if (components[x * 2] == components[x * 2 + 1]) return null;
+                // トポロジカル順で後ろにある方を真にすれば矛盾しない
+                ret[x] = components[x * 2] > components[x * 2 + 1];
+            }
+            return ret;
+        }
+    }
+
     /**
      * @param g
      * @see http://www.prefield.com/algorithm/graph/strongly_connected_components.html
@@ -848,4 +1864,797 @@ public class Graphs {
         }
         return dists[t];
     }
+
+    /**
+     * Kahnの方法によるトポロジカルソート。O(V+E)
+     * 
+     * 結果はグラフにキャッシュされるので、枝を追加しない限り2回目以降はO(1)。
+     * 
+     * @return i番目の要素にトポロジカル順でi番目の頂点が入った配列。閉路があればnull。
+     *         キャッシュそのものを返すので書き換えないこと
+     */
+    static int[] topologicalSort(AdjGraph g) {
+        if (g.topologicallySorted != null) return g.topologicallySorted;
+        int n = g.n;
+        int[] inDegree = new int[n];
+        for (int v = 0; v < n; v++) {
+            for (Edge e : g.edges[v]) {
+                inDegree[e.to]++;
+            }
+        }
+        int[] sorted = new int[n];  // キューとしても使う
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0) sorted[tail++] = v;
+        }
+        for (int head = 0; head < tail; head++) {
+            for (Edge e : g.edges[sorted[head]]) {
+                if (--inDegree[e.to] == 0) sorted[tail++] = e.to;
+            }
+        }
+        if (tail < n) return null;  // 閉路上の頂点は入次数が0にならない
+        return g.topologicallySorted = sorted;
+    }
+
+    /**
+     * 有向非循環グラフの最短路・最長路をトポロジカル順に1回なめて求める。O(V+E)
+     * 
+     * 作業用配列は使い回すので、同じグラフに何度もクエリを投げる場合はインスタンスを保持しておくとよい。
+     * run()の戻り値や{@link #prev}は次のrun()で上書きされるので注意。
+     */
+    static class DagPaths {
+        final AdjGraph g;
+        final boolean longest;
+        int[] sorted;  // sorted[i]: トポロジカル順でi番目の頂点
+        int[] rank;  // rank[v]: 頂点vのトポロジカル順序
+        final int[] dists;
+        final int[] prev;  // 直前の頂点。始点と到達不能な点は-1
+        final int unreachable;
+
+        /**
+         * @param longest trueなら最長路、falseなら最短路を求める
+         * @throws IllegalArgumentException if {@code g} has a cycle
+         */
+        DagPaths(AdjGraph g, boolean longest) {
+            this.g = g;
+            this.longest = longest;
+            rank = new int[g.n];
+            refresh();
+            dists = new int[g.n];
+            prev = new int[g.n];
+            unreachable = longest ? -INF : INF;
+        }
+
+        /**
+         * 枝が追加されてグラフのキャッシュが変わっていればトポロジカル順序を取り直す
+         */
+        private void refresh() {
+            int[] current = topologicalSort(g);
+            if (current == null) throw new IllegalArgumentException("not a DAG");
+            if (current == sorted) return;
+            sorted = current;
+            for (int i = 0; i < g.n; i++)
+                rank[sorted[i]] = i;
+        }
+
+        /**
+         * 複数の始点をまとめて処理する。各頂点の値は最も近い（遠い）始点からの距離になる。
+         * 構築後に枝が追加されていれば順序を取り直す（O(V+E)）。
+         * 
+         * @return 距離。到達不能な点は最短路ならINF、最長路なら-INF
+         * @throws IllegalArgumentException 枝の追加で閉路ができた場合
+         */
+        int[] run(int... sources) {
+            refresh();
+            Arrays.fill(dists, unreachable);
+            Arrays.fill(prev, -1);
+            int startRank = g.n;
+            for (int s : sources) {
+                dists[s] = 0;
+                startRank = Math.min(startRank, rank[s]);
+            }
+            for (int ord = startRank; ord < g.n; ord++) {
+                int v = sorted[ord];
+                if (dists[v] == unreachable) continue;
+                for (Edge e : g.edges[v]) {
+                    int d = dists[v] + e.cost;
+                    if (longest ? dists[e.to] < d : dists[e.to] > d) {
+                        dists[e.to] = d;
+                        prev[e.to] = v;
+                    }
+                }
+            }
+            return dists;
+        }
+    }
+
+    /**
+     * コストが一定のグラフ向けのBFSと、コストが0か1のグラフ向けの0-1 BFS。どちらもO(V+E)
+     * 
+     * 作業用の配列は使い回すので、同じ大きさのグラフに何度もクエリを投げる場合はインスタンスを保持しておくとよい。
+     * 戻り値や{@link #prev}は次の呼び出しで上書きされるので注意。
+     */
+    static class BfsShortestPaths {
+        final int[] dists;
+        final int[] prev;  // 直前の頂点。始点と到達不能な点は-1
+        final int[] deque;  // 0-1 BFSでは各頂点は高々2回しか積まれないので2nあれば足りる
+        final boolean[] done;
+
+        BfsShortestPaths(int n) {
+            dists = new int[n];
+            prev = new int[n];
+            deque = new int[n * 2 + 1];
+            done = new boolean[n];
+        }
+
+        private void init(int s) {
+            Arrays.fill(dists, INF);
+            Arrays.fill(prev, -1);
+            dists[s] = 0;
+        }
+
+        /**
+         * 枝のコストを見て、BFS、0-1 BFS、ダイクストラ法のうち使えるものを選ぶ。
+         * コストの範囲が不明なら枝をなめて求め直す
+         * 
+         * @throws IllegalArgumentException 負のコストの枝がある場合
+         */
+        int[] run(AdjGraph g, int s) {
+            int minCost = g.minCost, maxCost = g.maxCost;
+            if (minCost > maxCost) {
+                for (ArrayList<Edge> edges : g.edges) {
+                    for (Edge e : edges) {
+                        minCost = Math.min(minCost, e.cost);
+                        maxCost = Math.max(maxCost, e.cost);
+                    }
+                }
+            }
+            if (minCost > maxCost) {  // 枝がない
+                init(s);
+                return dists;
+            }
+            if (minCost < 0) throw new IllegalArgumentException("negative cost");
+            if (minCost == maxCost) return bfs(g, s);
+            if (maxCost <= 1) return zeroOneBfs(g, s);
+            return dijkstra(g, s);
+        }
+
+        /**
+         * @throws IllegalArgumentException 負のコストの枝がある場合
+         */
+        int[] run(CsrGraph g, int s) {
+            if (g.minCost > g.maxCost) {  // 枝がない
+                init(s);
+                return dists;
+            }
+            if (g.minCost < 0) throw new IllegalArgumentException("negative cost");
+            if (g.minCost == g.maxCost) return bfs(g, s);
+            if (g.maxCost <= 1) return zeroOneBfs(g, s);
+            return dijkstra(g, s);
+        }
+
+        /**
+         * 全ての枝のコストが非負であること
+         */
+        int[] dijkstra(AdjGraph g, int s) {
+            init(s);
+            Arrays.fill(done, false);
+            PriorityQueue<EdgeState> queue = new PriorityQueue<EdgeState>();
+            queue.add(new EdgeState(0, s));
+            while (!queue.isEmpty()) {
+                int v = queue.poll().n;
+                if (done[v]) continue;
+                done[v] = true;
+                for (Edge e : g.edges[v]) {
+                    if (dists[e.to] > dists[v] + e.cost) {
+                        dists[e.to] = dists[v] + e.cost;
+                        prev[e.to] = v;
+                        queue.add(new EdgeState(dists[e.to], e.to));
+                    }
+                }
+            }
+            return dists;
+        }
+
+        /**
+         * 全ての枝のコストが非負であること
+         */
+        int[] dijkstra(CsrGraph g, int s) {
+            init(s);
+            Arrays.fill(done, false);
+            PriorityQueue<EdgeState> queue = new PriorityQueue<EdgeState>();
+            queue.add(new EdgeState(0, s));
+            while (!queue.isEmpty()) {
+                int v = queue.poll().n;
+                if (done[v]) continue;
+                done[v] = true;
+                for (int i = g.head[v]; i < g.head[v + 1]; i++) {
+                    int u = g.to[i];
+                    if (dists[u] > dists[v] + g.cost[i]) {
+                        dists[u] = dists[v] + g.cost[i];
+                        prev[u] = v;
+                        queue.add(new EdgeState(dists[u], u));
+                    }
+                }
+            }
+            return dists;
+        }
+
+        /**
+         * 全ての枝のコストが等しいこと
+         */
+        int[] bfs(AdjGraph g, int s) {
+            init(s);
+            int head = 0, tail = 0;
+            deque[tail++] = s;
+            while (head < tail) {
+                int v = deque[head++];
+                for (Edge e : g.edges[v]) {
+                    if (dists[e.to] == INF) {
+                        dists[e.to] = dists[v] + e.cost;
+                        prev[e.to] = v;
+                        deque[tail++] = e.to;
+                    }
+                }
+            }
+            return dists;
+        }
+
+        int[] bfs(CsrGraph g, int s) {
+            init(s);
+            int head = 0, tail = 0;
+            deque[tail++] = s;
+            while (head < tail) {
+                int v = deque[head++];
+                for (int i = g.head[v]; i < g.head[v + 1]; i++) {
+                    int u = g.to[i];
+                    if (dists[u] == INF) {
+                        dists[u] = dists[v] + g.cost[i];
+                        prev[u] = v;
+                        deque[tail++] = u;
+                    }
+                }
+            }
+            return dists;
+        }
+
+        /**
+         * 全ての枝のコストが0か1であること
+         */
+        int[] zeroOneBfs(AdjGraph g, int s) {
+            init(s);
+            Arrays.fill(done, false);
+            int cap = deque.length;
+            int head = 0, tail = 0;
+            deque[tail++] = s;
+            while (head != tail) {
+                int v = deque[head];
+                if (++head == cap) head = 0;
+                if (done[v]) continue;
+                done[v] = true;
+                for (Edge e : g.edges[v]) {
+                    int d = dists[v] + e.cost;
+                    if (dists[e.to] > d) {
+                        dists[e.to] = d;
+                        prev[e.to] = v;
+                        if (e.cost == 0) {  // 0なら前に、1なら後ろに積む
+                            if (--head < 0) head = cap - 1;
+                            deque[head] = e.to;
+                        }
+                        else {
+                            deque[tail] = e.to;
+                            if (++tail == cap) tail = 0;
+                        }
+                    }
+                }
+            }
+            return dists;
+        }
+
+        int[] zeroOneBfs(CsrGraph g, int s) {
+            init(s);
+            Arrays.fill(done, false);
+            int cap = deque.length;
+            int head = 0, tail = 0;
+            deque[tail++] = s;
+            while (head != tail) {
+                int v = deque[head];
+                if (++head == cap) head = 0;
+                if (done[v]) continue;
+                done[v] = true;
+                for (int i = g.head[v]; i < g.head[v + 1]; i++) {
+                    int u = g.to[i];
+                    int d = dists[v] + g.cost[i];
+                    if (dists[u] > d) {
+                        dists[u] = d;
+                        prev[u] = v;
+                        if (g.cost[i] == 0) {
+                            if (--head < 0) head = cap - 1;
+                            deque[head] = u;
+                        }
+                        else {
+                            deque[tail] = u;
+                            if (++tail == cap) tail = 0;
+                        }
+                    }
+                }
+            }
+            return dists;
+        }
+    }
+
+    /**
+     * 重みなしグラフの並列BFS。フロンティアが大きくなるとボトムアップ探索
+     * （未訪問の頂点側からフロンティアにつながる枝を探す）に切り替える。
+     * フロンティアと訪問済み集合はビット集合で持ち、64頂点単位で区切ってスレッドに割り振る。
+     * 
+     * スレッドはデーモンなのでshutdown()を呼ばなくてもJVMは終了できる。
+     * 
+     * @see S. Beamer et al., Direction-Optimizing Breadth-First Search, SC 2012
+     */
+    static class ParallelBfs {
+        final CsrGraph g;
+        final CsrGraph reversed;  // ボトムアップ探索で入ってくる枝を見るのに使う
+        final int numThreads;
+        final ExecutorService pool;
+        /** フロンティアから出る枝数が未探索の枝数の1/alphaを超えたらボトムアップに切り替える */
+        double alpha = 14;
+        /** フロンティアの頂点数が全体の1/betaを下回ったらトップダウンに戻す */
+        double beta = 24;
+
+        final int[] levels;
+        private final AtomicLongArray visited;
+        private AtomicLongArray frontier, next;  // 段ごとに入れ替えて使い回す
+        private int depth;
+
+        /**
+         * @param reversed gの逆グラフ。nullならgは無向グラフ（全ての枝に逆向きの枝がある）とみなす
+         */
+        ParallelBfs(CsrGraph g, CsrGraph reversed, int numThreads) {
+            this.g = g;
+            this.reversed = reversed != null ? reversed : g;
+            this.numThreads = numThreads;
+            int words = (g.n + 63) >>> 6;
+            levels = new int[g.n];
+            visited = new AtomicLongArray(words);
+            frontier = new AtomicLongArray(words);
+            next = new AtomicLongArray(words);
+            pool = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "ParallelBfs");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+
+        void shutdown() {
+            pool.shutdown();
+        }
+
+        /**
+         * @return 各頂点の始点からの枝数。到達不能なら-1。次のrun()で上書きされる
+         */
+        int[] run(int s) {
+            int n = g.n;
+            int words = (n + 63) >>> 6;
+            Arrays.fill(levels, -1);
+            clear(visited);
+            clear(frontier);
+            levels[s] = 0;
+            visited.set(s >>> 6, 1L << s);
+            frontier.set(s >>> 6, 1L << s);
+
+            long frontierSize = 1;
+            long frontierArcs = g.head[s + 1] - g.head[s];
+            long unexploredArcs = g.numArcs() - frontierArcs;
+            boolean bottomUp = false;
+            for (depth = 0; frontierSize > 0; depth++) {
+                if (bottomUp) bottomUp = frontierSize >= n / beta;
+                else bottomUp = frontierArcs > unexploredArcs / alpha;
+
+                clear(next);
+                long[] found = step(words, bottomUp);
+                frontierSize = found[0];
+                frontierArcs = found[1];
+                unexploredArcs -= frontierArcs;
+                AtomicLongArray temp = frontier;
+                frontier = next;
+                next = temp;
+            }
+            return levels;
+        }
+
+        private static void clear(AtomicLongArray bits) {
+            for (int i = 0; i < bits.length(); i++) {
+                bits.set(i, 0);
+            }
+        }
+
+        /**
+         * @return {新たに訪問した頂点数, それらから出る枝数}
+         */
+        private long[] step(int words, final boolean bottomUp) {
+            int numTasks = Math.min(words, numThreads * 4);
+            List<Future<long[]>> futures = new ArrayList<Future<long[]>>(numTasks);
+            for (int i = 0; i < numTasks; i++) {
+                final int wordFrom = (int) ((long) words * i / numTasks);
+                final int wordTo = (int) ((long) words * (i + 1) / numTasks);
+                futures.add(pool.submit(new Callable<long[]>() {
+                    @Override
+                    public long[] call() {
+                        return bottomUp ? bottomUp(wordFrom, wordTo) : topDown(wordFrom, wordTo);
+                    }
+                }));
+            }
+            long[] ret = new long[2];
+            try {
+                for (Future<long[]> f : futures) {
+                    long[] r = f.get();  // get()により各スレッドでのlevelsへの書き込みが見える
+                    ret[0] += r[0];
+                    ret[1] += r[1];
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+            return ret;
+        }
+
+        /** フロンティアの頂点から出る枝を見て未訪問の頂点を訪問する */
+        private long[] topDown(int wordFrom, int wordTo) {
+            long count = 0, arcs = 0;
+            for (int w = wordFrom; w < wordTo; w++) {
+                for (long bits = frontier.get(w); bits != 0; bits &= bits - 1) {
+                    int v = w << 6 | Long.numberOfTrailingZeros(bits);
+                    for (int i = g.head[v]; i < g.head[v + 1]; i++) {
+                        int u = g.to[i];
+                        if (levels[u] < 0 && setBit(visited, u)) {  // levelsは早期判定用で、確定はCASで行う
+                            levels[u] = depth + 1;
+                            setBit(next, u);
+                            count++;
+                            arcs += g.head[u + 1] - g.head[u];
+                        }
+                    }
+                }
+            }
+            return new long[] { count, arcs };
+        }
+
+        /** 未訪問の頂点に入ってくる枝のうち、フロンティアから来るものを探す */
+        private long[] bottomUp(int wordFrom, int wordTo) {
+            long count = 0, arcs = 0;
+            int n = g.n;
+            for (int w = wordFrom; w < wordTo; w++) {
+                long unvisited = ~visited.get(w);
+                long found = 0;
+                for (long bits = unvisited; bits != 0; bits &= bits - 1) {
+                    int v = w << 6 | Long.numberOfTrailingZeros(bits);
+                    if (v >= n) break;
+                    for (int i = reversed.head[v]; i < reversed.head[v + 1]; i++) {
+                        int p = reversed.to[i];
+                        if ((frontier.get(p >>> 6) & 1L << p) != 0) {
+                            levels[v] = depth + 1;
+                            found |= 1L << v;
+                            count++;
+                            arcs += g.head[v + 1] - g.head[v];
+                            break;
+                        }
+                    }
+                }
+                if (found != 0) {  // この語はこのタスクしか触らない
+                    visited.set(w, visited.get(w) | found);
+                    next.set(w, found);
+                }
+            }
+            return new long[] { count, arcs };
+        }
+
+        /** @return ビットが新たに立ったならtrue */
+        private static boolean setBit(AtomicLongArray bitset, int i) {
+            int w = i >>> 6;
+            long bit = 1L << i;
+            while (true) {
+                long old = bitset.get(w);
+                if ((old & bit) != 0) return false;
+                if (bitset.compareAndSet(w, old, old | bit)) return true;
+            }
+        }
+    }
+
+    /**
+     * 無向グラフの橋・関節点・二重辺連結成分・二重頂点連結成分（ブロック）。O(V+E)
+     * 
+     * DFSは明示的なスタックで行うので、頂点数が多くてもスタックオーバーフローしない。
+     * 多重辺があってもよい（親へ戻る枝は1本だけ無視する）。
+     * 
+     * @see http://hos.ac/slides/20110504_graph.pdf
+     */
+    static class Lowlink {
+        final int n;
+        final int[] order;  // order[v]: DFSでvを訪れた順序
+        final int[] lowlink;  // lowlink[v]: vから木の枝を下って後退辺を1度だけ使って辿れる頂点のorderの最小値
+        final int[] parent;  // DFS木での親。根は-1
+        final boolean[] isArticulation;
+        int numArticulations;
+        int numBridges;
+        int[] bridgeFrom, bridgeTo;  // i番目の橋はbridgeFrom[i]-bridgeTo[i]。bridgeFromがDFS木での親
+        int numTwoEdgeComponents;
+        final int[] twoEdgeComponent;  // twoEdgeComponent[v]: vを含む二重辺連結成分の番号
+        int numBlocks;
+        int[] blockHead;  // i番目のブロックの頂点はblockVertices[blockHead[i]...blockHead[i+1]-1]
+        int[] blockVertices;
+
+        /**
+         * @param g 無向グラフ。全ての枝に逆向きの枝があること（addEdge()で作ったもの）
+         */
+        Lowlink(AdjGraph g) {
+            this(new CsrGraph(g));
+        }
+
+        Lowlink(CsrGraph g) {
+            n = g.n;
+            order = new int[n];
+            lowlink = new int[n];
+            parent = new int[n];
+            isArticulation = new boolean[n];
+            twoEdgeComponent = new int[n];
+            bridgeFrom = new int[16];
+            bridgeTo = new int[16];
+            blockHead = new int[17];
+            blockVertices = new int[Math.max(16, n)];
+
+            int[] cursor = Arrays.copyOf(g.head, n);  // 各頂点で次に見る枝
+            boolean[] skippedParent = new boolean[n];
+            int[] stack = new int[n];  // DFSのスタック
+            int[] vStack = new int[n];  // ブロックの候補の頂点のスタック
+            int[] preorder = new int[n];
+            Arrays.fill(order, -1);
+            int curOrder = 0;
+            for (int r = 0; r < n; r++) {
+                if (order[r] != -1) continue;
+                int sp = 0, vsp = 0, rootChildren = 0;
+                order[r] = lowlink[r] = curOrder;
+                preorder[curOrder++] = r;
+                parent[r] = -1;
+                stack[sp++] = r;
+                vStack[vsp++] = r;
+                while (sp > 0) {
+                    int v = stack[sp - 1];
+                    if (cursor[v] < g.head[v + 1]) {
+                        int u = g.to[cursor[v]++];
+                        if (u == parent[v] && !skippedParent[v]) {  // 木の枝の逆辺
+                            skippedParent[v] = true;
+                        }
+                        else if (order[u] == -1) {  // 前進辺
+                            parent[u] = v;
+                            order[u] = lowlink[u] = curOrder;
+                            preorder[curOrder++] = u;
+                            stack[sp++] = u;
+                            vStack[vsp++] = u;
+                        }
+                        else {  // 後退辺（か、すでに見た子孫への枝）
+                            lowlink[v] = Math.min(lowlink[v], order[u]);
+                        }
+                        continue;
+                    }
+                    sp--;
+                    int p = parent[v];
+                    if (p == -1) continue;
+                    lowlink[p] = Math.min(lowlink[p], lowlink[v]);
+                    if (lowlink[v] > order[p]) addBridge(p, v);
+                    if (lowlink[v] >= order[p]) {  // pを取り除くとvの部分木が切り離される
+                        if (p == r) rootChildren++;
+                        else if (!isArticulation[p]) {
+                            isArticulation[p] = true;
+                            numArticulations++;
+                        }
+                        int size = 0;
+                        while (vStack[vsp - 1 - size] != v)
+                            size++;
+                        vsp -= size + 1;
+                        addBlock(vStack, vsp, size + 1, p);
+                    }
+                }
+                if (rootChildren >= 2) {
+                    isArticulation[r] = true;
+                    numArticulations++;
+                }
+                if (rootChildren == 0) addBlock(vStack, 0, 1, -1);  // 孤立点
+            }
+
+            // 木の枝のうち橋でないものでつながっている頂点が同じ二重辺連結成分になる
+            boolean[] isBridgeChild = new boolean[n];
+            for (int i = 0; i < numBridges; i++) {
+                isBridgeChild[bridgeTo[i]] = true;
+            }
+            for (int i = 0; i < n; i++) {
+                int v = preorder[i];
+                if (parent[v] == -1 || isBridgeChild[v]) {
+                    twoEdgeComponent[v] = numTwoEdgeComponents++;
+                }
+                else twoEdgeComponent[v] = twoEdgeComponent[parent[v]];
+            }
+        }
+
+        private void addBridge(int from, int to) {
+            if (numBridges == bridgeFrom.length) {
+                bridgeFrom = Arrays.copyOf(bridgeFrom, numBridges * 2);
+                bridgeTo = Arrays.copyOf(bridgeTo, numBridges * 2);
+            }
+            bridgeFrom[numBridges] = from;
+            bridgeTo[numBridges++] = to;
+        }
+
+        /** vs[offset...offset+size-1]と、extraが-1でなければextraを1つのブロックとする */
+        private void addBlock(int[] vs, int offset, int size, int extra) {
+            if (numBlocks + 2 > blockHead.length) blockHead = Arrays.copyOf(blockHead,
+                    blockHead.length * 2);
+            int start = blockHead[numBlocks];
+            int end = start + size + (extra != -1 ? 1 : 0);
+            if (end > blockVertices.length) blockVertices = Arrays.copyOf(blockVertices,
+                    Math.max(end, blockVertices.length * 2));
+            System.arraycopy(vs, offset, blockVertices, start, size);
+            if (extra != -1) blockVertices[end - 1] = extra;
+            blockHead[++numBlocks] = end;
+        }
+
+        /**
+         * ブロックカット木を作る。頂点0...numBlocks-1がブロックを、
+         * numBlocks...numBlocks+numArticulations-1が関節点を表し、ブロックとそれに含まれる関節点の間に枝を張る。
+         * 
+         * @param cutNode 出力用。cutNode[v]には関節点vに対応する木の頂点が入る。関節点でなければ-1
+         */
+        AdjGraph blockCutTree(int[] cutNode) {
+            Arrays.fill(cutNode, -1);
+            int k = numBlocks;
+            for (int v = 0; v < n; v++) {
+                if (isArticulation[v]) cutNode[v] = k++;
+            }
+            AdjGraph tree = new AdjGraph(k);
+            for (int b = 0; b < numBlocks; b++) {
+                for (int i = blockHead[b]; i < blockHead[b + 1]; i++) {
+                    int v = blockVertices[i];
+                    if (isArticulation[v]) tree.addEdge(new Edge(b, cutNode[v], 1));
+                }
+            }
+            return tree;
+        }
+    }
+
+    /*
+     * オイラー路
+     */
+
+    /**
+     * 有向グラフのオイラー路。枝の番号は隣接リストを頂点順に並べたもの（CsrGraph(g)の枝の番号）。
+     * 
+     * @see #eulerianTrail(int, int[], int[], int, boolean, int[])
+     */
+    static int[] eulerianTrail(AdjGraph g) {
+        int m = 0;
+        for (int v = 0; v < g.n; v++)
+            m += g.edges[v].size();
+        int[] from = new int[m], to = new int[m];
+        for (int v = 0, i = 0; v < g.n; v++) {
+            for (Edge e : g.edges[v]) {
+                from[i] = v;
+                to[i++] = e.to;
+            }
+        }
+        return eulerianTrail(g.n, from, to, m, true, null);
+    }
+
+    /**
+     * @param directed falseの場合、枝はaddEdge()で追加されていること。
+     *            つまりg.edgesの2k番目と2k+1番目が同じ無向辺の両向きであること
+     * @return 通る枝のg.edgesでの番号の列。無向の場合は通る向きの方の番号が入る
+     * @see #eulerianTrail(int, int[], int[], int, boolean, int[])
+     */
+    static int[] eulerianTrail(EdgeGraph g, boolean directed) {
+        int m = directed ? g.edges.size() : g.edges.size() / 2;
+        int[] from = new int[m], to = new int[m];
+        for (int i = 0; i < m; i++) {
+            Edge e = g.edges.get(directed ? i : i * 2);
+            from[i] = e.from;
+            to[i] = e.to;
+        }
+        if (directed) return eulerianTrail(g.n, from, to, m, true, null);
+        int[] vertices = new int[m + 1];
+        int[] trail = eulerianTrail(g.n, from, to, m, false, vertices);
+        if (trail == null) return null;
+        for (int i = 0; i < m; i++) {
+            trail[i] = trail[i] * 2 + (vertices[i] == from[trail[i]] ? 0 : 1);
+        }
+        return trail;
+    }
+
+    /**
+     * オイラー路（全ての枝をちょうど1回ずつ通る路）をHierholzerの方法で求める。O(V+E)
+     * 
+     * 再帰を使わず、枝を削除する代わりに頂点ごとに次に見る枝の位置を持つ。
+     * 多重辺や自己ループがあってもよい。
+     * 
+     * @param from i番目の枝はfrom[i]とto[i]を結ぶ
+     * @param m 枝数。配列の先頭m要素を使う
+     * @param directed trueなら有向グラフとして扱う
+     * @param vertices 出力用。nullでなければi番目に路のi番目の頂点が入る（長さm+1以上であること）
+     * @return 通る枝の番号の列。オイラー路が存在しなければnull。
+     *         閉路が存在するならそれを返す
+     */
+    static int[] eulerianTrail(int n, int[] from, int[] to, int m, boolean directed,
+            int[] vertices) {
+        if (m == 0) {
+            if (vertices != null && n > 0) vertices[0] = 0;
+            return new int[0];
+        }
+        int[] head = new int[n + 1];
+        int[] balance = new int[n];  // 有向: 出次数-入次数、無向: 次数
+        for (int i = 0; i < m; i++) {
+            head[from[i] + 1]++;
+            balance[from[i]]++;
+            if (directed) balance[to[i]]--;
+            else {
+                head[to[i] + 1]++;
+                balance[to[i]]++;
+            }
+        }
+        for (int v = 0; v < n; v++)
+            head[v + 1] += head[v];
+        int[] adj = new int[head[n]];  // 頂点に接続する枝の番号
+        int[] cursor = Arrays.copyOf(head, n);
+        for (int i = 0; i < m; i++) {
+            adj[cursor[from[i]]++] = i;
+            if (!directed) adj[cursor[to[i]]++] = i;
+        }
+
+        int start = from[0];
+        int numOdd = 0;
+        for (int v = 0; v < n; v++) {
+            if (directed) {
+                if (balance[v] == 1) {
+                    start = v;
+                    numOdd++;
+                }
+                else if (balance[v] != 0 && balance[v] != -1) return null;
+                if (balance[v] == -1) numOdd++;
+            }
+            else if (balance[v] % 2 != 0) {
+                if (numOdd++ == 0) start = v;
+            }
+        }
+        if (numOdd > 2) return null;
+
+        System.arraycopy(head, 0, cursor, 0, n);
+        boolean[] used = new boolean[m];
+        int[] vStack = new int[m + 1];
+        int[] eStack = new int[m + 1];  // その頂点に来るのに使った枝
+        int sp = 0;
+        vStack[sp] = start;
+        eStack[sp++] = -1;
+        int[] trail = new int[m];
+        int tp = m;  // 路は後ろから確定していく
+        while (sp > 0) {
+            int v = vStack[sp - 1];
+            while (cursor[v] < head[v + 1] && used[adj[cursor[v]]])
+                cursor[v]++;
+            if (cursor[v] < head[v + 1]) {
+                int e = adj[cursor[v]++];
+                used[e] = true;
+                vStack[sp] = directed || from[e] == v ? to[e] : from[e];
+                eStack[sp++] = e;
+                continue;
+            }
+            sp--;
+            if (vertices != null) vertices[tp] = v;
+            if (eStack[sp] != -1) trail[--tp] = eStack[sp];
+        }
+        if (tp > 0) return null;  // 非連結
+        return trail;
+    }
 }
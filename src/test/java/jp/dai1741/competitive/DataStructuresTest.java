@@ -6,8 +6,10 @@ import jp.dai1741.competitive.DataStructures.LazyRMQTreap;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Random;
 
 import static jp.dai1741.competitive.DataStructures.*;
 import static java.lang.Integer.MAX_VALUE;
@@ -45,6 +47,99 @@ public class DataStructuresTest {
         bit.addRange(0, 16, 1);
     }
 
+    @Test
+    public void testLongBIT() {
+        LongBinaryIndexedTree bit = new LongBinaryIndexedTree(15);
+        bit.add(3, 5L << 40);
+        bit.add(1, 2);
+        bit.add(11, 13L << 40);
+        assertEquals((5L << 40) + 2, bit.sum(7));
+        assertEquals((18L << 40) + 2, bit.sum(15));
+
+        Random random = new Random(4747);
+        for (int n = 1; n <= 100; n += 9) {
+            long[] values = new long[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = random.nextInt(5) * (long) Integer.MAX_VALUE;
+            }
+            LongBinaryIndexedTree built = new LongBinaryIndexedTree(values);
+            bit = new LongBinaryIndexedTree(n);
+            for (int i = 0; i < n; i++) {
+                bit.add(i + 1, values[i]);
+            }
+            assertArrayEquals(bit.data, built.data);
+
+            long total = 0;
+            for (int i = 1; i <= n; i++) {
+                total += values[i - 1];
+                assertEquals(total, built.sum(i));
+            }
+            for (int iter = 0; iter < 50; iter++) {
+                long w = (long) (random.nextDouble() * (total + 10));
+                int expected = 1;
+                while (expected <= n && built.sum(expected) < w) {
+                    expected++;
+                }
+                assertEquals(expected, built.lowerBound(w));
+            }
+            assertEquals(n + 1, built.lowerBound(total + 1));
+        }
+    }
+
+    @Test
+    public void testLongRangeAddableBIT() {
+        long big = 1L << 35;
+        LongRangeAddableBinaryIndexedTree bit = new LongRangeAddableBinaryIndexedTree(
+                new long[] { 2, 0, 5, 0, -1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 });
+        bit.addRange(10, 15, 3 * big);
+        bit.addRange(3, 12, -big);
+        bit.addRange(1, 2, 10);
+        assertEquals(26 - 5 * big, bit.sum(7));
+        assertEquals(26 + 8 * big, bit.sum(15));
+        assertEquals(12, bit.sum(1));
+    }
+
+    @Test
+    public void testConcurrentBIT() throws InterruptedException {
+        final int n = 1000;
+        final int numThreads = 8;
+        final int adds = 20000;
+        for (int stripes = 1; stripes <= 4; stripes *= 4) {
+            final ConcurrentBinaryIndexedTree bit = new ConcurrentBinaryIndexedTree(n, stripes);
+            Thread[] threads = new Thread[numThreads];
+            for (int t = 0; t < numThreads; t++) {
+                final int id = t;
+                threads[t] = new Thread() {
+                    @Override
+                    public void run() {
+                        Random random = new Random(id);
+                        for (int k = 0; k < adds; k++) {
+                            bit.add(random.nextInt(n) + 1, 1000);
+                        }
+                    }
+                };
+                threads[t].start();
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+            assertEquals(1000L * numThreads * adds, bit.sum(n));
+
+            long[] expected = new long[n + 1];
+            for (int t = 0; t < numThreads; t++) {
+                Random random = new Random(t);
+                for (int k = 0; k < adds; k++) {
+                    expected[random.nextInt(n) + 1] += 1000;
+                }
+            }
+            long total = 0;
+            for (int i = 1; i <= n; i++) {
+                total += expected[i];
+                assertEquals(total, bit.sum(i));
+            }
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testBIT2D() {
         BinaryIndexedTree2D bit2d = new BinaryIndexedTree2D(10, 10);
@@ -62,6 +157,113 @@ public class DataStructuresTest {
         bit2d.sum(0, 1);
     }
 
+    @Test
+    public void testLongBIT2D() {
+        Random random = new Random(4747);
+        int w = 13, h = 7;
+        long[] values = new long[w * h];
+        long[][] naive = new long[h + 1][w + 1];
+        LongBinaryIndexedTree2D bit = new LongBinaryIndexedTree2D(w, h);
+        for (int y = 1; y <= h; y++) {
+            for (int x = 1; x <= w; x++) {
+                values[(y - 1) * w + x - 1] = naive[y][x] = random.nextInt(100) - 50;
+                bit.add(x, y, naive[y][x]);
+            }
+        }
+        LongBinaryIndexedTree2D built = new LongBinaryIndexedTree2D(w, h, values);
+        assertArrayEquals(bit.data, built.data);
+
+        for (int iter = 0; iter < 300; iter++) {
+            int x = random.nextInt(w) + 1, y = random.nextInt(h) + 1;
+            long v = (random.nextInt(100) - 50) * (1L << 30);
+            built.add(x, y, v);
+            naive[y][x] += v;
+            int x1 = random.nextInt(w) + 1, x2 = x1 + random.nextInt(w - x1 + 1);
+            int y1 = random.nextInt(h) + 1, y2 = y1 + random.nextInt(h - y1 + 1);
+            assertEquals(rectangleSum(naive, x1, y1, x2, y2), built.sum(x1, y1, x2, y2));
+            assertEquals(rectangleSum(naive, 1, 1, x2, y2), built.sum(x2, y2));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLongRangeAddableBIT2D() {
+        Random random = new Random(4747);
+        int w = 9, h = 11;
+        long[][] naive = new long[h + 1][w + 1];
+        LongRangeAddableBinaryIndexedTree2D bit = new LongRangeAddableBinaryIndexedTree2D(w, h);
+        for (int iter = 0; iter < 300; iter++) {
+            int x1 = random.nextInt(w) + 1, x2 = x1 + random.nextInt(w - x1 + 1);
+            int y1 = random.nextInt(h) + 1, y2 = y1 + random.nextInt(h - y1 + 1);
+            long v = (random.nextInt(100) - 50) * (1L << 30);
+            bit.addRange(x1, y1, x2, y2, v);
+            for (int y = y1; y <= y2; y++) {
+                for (int x = x1; x <= x2; x++) {
+                    naive[y][x] += v;
+                }
+            }
+            x1 = random.nextInt(w) + 1;
+            x2 = x1 + random.nextInt(w - x1 + 1);
+            y1 = random.nextInt(h) + 1;
+            y2 = y1 + random.nextInt(h - y1 + 1);
+            assertEquals(rectangleSum(naive, x1, y1, x2, y2), bit.sum(x1, y1, x2, y2));
+            assertEquals(rectangleSum(naive, 1, 1, x2, y2), bit.sum(x2, y2));
+        }
+
+        bit.addRange(1, 1, w + 1, h, 1);
+    }
+
+    @Test
+    public void testOfflineBIT2D() {
+        Random random = new Random(4747);
+        int n = 500;
+        int[] xs = new int[n], ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextInt(i < 100 ? 20 : MAX_VALUE) - (i % 2 == 0 ? 0 : MAX_VALUE / 2);
+            ys[i] = random.nextInt(i < 100 ? 20 : MAX_VALUE);
+        }
+        OfflineBinaryIndexedTree2D bit = new OfflineBinaryIndexedTree2D(xs, ys);
+        long[] values = new long[n];  // 同じ点への加算は最初の添字にまとめる
+        for (int iter = 0; iter < 2000; iter++) {
+            int k = random.nextInt(n);
+            long v = random.nextInt(1000) * (1L << 30);
+            bit.add(xs[k], ys[k], v);
+            values[k] += v;
+            int x1 = xs[random.nextInt(n)] + random.nextInt(3) - 1;
+            int x2 = xs[random.nextInt(n)] + random.nextInt(3) - 1;
+            int y1 = ys[random.nextInt(n)] + random.nextInt(3) - 1;
+            int y2 = ys[random.nextInt(n)] + random.nextInt(3) - 1;
+            long expected = 0, expectedPrefix = 0;
+            for (int i = 0; i < n; i++) {
+                if (x1 <= xs[i] && xs[i] <= x2 && y1 <= ys[i] && ys[i] <= y2) {
+                    expected += values[i];
+                }
+                if (xs[i] <= x2 && ys[i] <= y2) expectedPrefix += values[i];
+            }
+            assertEquals(expected, bit.sum(x1, y1, x2, y2));
+            assertEquals(expectedPrefix, bit.sum(x2, y2));
+        }
+        assertEquals(0, bit.sum(Integer.MIN_VALUE, MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfflineBIT2DUnknownPoint() {
+        OfflineBinaryIndexedTree2D bit = new OfflineBinaryIndexedTree2D(new int[] { 1, 5 },
+                new int[] { 1000000000, 3 });
+        bit.add(5, 3, 1);
+        assertEquals(1, bit.sum(5, 1000000000));
+        bit.add(1, 3, 1);
+    }
+
+    private static long rectangleSum(long[][] a, int x1, int y1, int x2, int y2) {
+        long s = 0;
+        for (int y = y1; y <= y2; y++) {
+            for (int x = x1; x <= x2; x++) {
+                s += a[y][x];
+            }
+        }
+        return s;
+    }
+
     @Test
     public void testUnionFind() {
         UnionFind uf = new UnionFind(10);
@@ -80,6 +282,201 @@ public class DataStructuresTest {
         assertTrue(uf.find(0) == uf.find(2));
     }
 
+    @Test
+    public void testUnionFindBySize() {
+        UnionFindBySize uf = new UnionFindBySize(10);
+        assertTrue(uf.unite(2, 5));
+        assertTrue(uf.unite(3, 4));
+        assertTrue(uf.unite(0, 5));
+        assertTrue(uf.unite(7, 9));
+        assertTrue(uf.unite(1, 8));
+        assertTrue(uf.unite(4, 7));
+        assertFalse(uf.unite(9, 3));
+
+        assertTrue(uf.same(2, 5));
+        assertFalse(uf.same(2, 6));
+        assertFalse(uf.same(0, 9));
+        assertTrue(uf.same(3, 9));
+        assertEquals(3, uf.size(0));
+        assertEquals(4, uf.size(9));
+        assertEquals(1, uf.size(6));
+        assertEquals(4, uf.count());
+
+        int n = 2000000;
+        uf = new UnionFindBySize(n);
+        for (int i = n - 1; i > 0; i--) {  // 長い鎖でもスタックが溢れない
+            uf.unite(i - 1, i);
+        }
+        assertEquals(n, uf.size(n / 2));
+        assertEquals(1, uf.count());
+
+        Random random = new Random(4747);
+        n = 300;
+        uf = new UnionFindBySize(n);
+        int[] naive = new int[n];  // 集合の代表を直接持つ
+        for (int i = 0; i < n; i++) {
+            naive[i] = i;
+        }
+        for (int iter = 0; iter < 1000; iter++) {
+            int x = random.nextInt(n);
+            int y = random.nextInt(n);
+            assertEquals(naive[x] != naive[y], uf.unite(x, y));
+            int from = naive[y];
+            for (int i = 0; i < n; i++) {
+                if (naive[i] == from) naive[i] = naive[x];
+            }
+            int size = 0;
+            for (int i = 0; i < n; i++) {
+                if (naive[i] == naive[x]) size++;
+            }
+            assertEquals(size, uf.size(y));
+        }
+    }
+
+    @Test
+    public void testPotentialUnionFind() {
+        PotentialUnionFind uf = new PotentialUnionFind(6);
+        assertTrue(uf.unite(0, 1, 3));  // x1 = x0 + 3
+        assertTrue(uf.unite(2, 1, -2));  // x1 = x2 - 2
+        assertTrue(uf.unite(3, 4, 10));
+        assertEquals(5, uf.diff(0, 2));
+        assertEquals(-5, uf.diff(2, 0));
+        assertTrue(uf.unite(0, 2, 5));  // 既存の制約と同じ
+        assertFalse(uf.unite(0, 2, 4));  // 矛盾
+        assertEquals(5, uf.diff(0, 2));
+        assertTrue(uf.unite(4, 1, 1L << 40));
+        assertEquals(3 - 10 - (1L << 40), uf.diff(0, 3));
+        assertEquals(5, uf.size(4));
+        assertFalse(uf.same(0, 5));
+
+        // 長い鎖
+        int n = 1000000;
+        uf = new PotentialUnionFind(n);
+        for (int i = n - 1; i > 0; i--) {
+            assertTrue(uf.unite(i - 1, i, i));
+        }
+        assertEquals((long) n * (n - 1) / 2, uf.diff(0, n - 1));
+
+        Random random = new Random(4747);
+        n = 100;
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextInt(1000);
+        }
+        uf = new PotentialUnionFind(n);
+        for (int iter = 0; iter < 500; iter++) {
+            int x = random.nextInt(n);
+            int y = random.nextInt(n);
+            if (uf.same(x, y) && random.nextInt(3) == 0) {  // 矛盾する制約
+                assertFalse(uf.unite(x, y, values[y] - values[x] + 1));
+            }
+            assertTrue(uf.unite(x, y, values[y] - values[x]));
+            assertEquals(values[y] - values[x], uf.diff(x, y));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPotentialUnionFindUnrelated() {
+        new PotentialUnionFind(3).diff(0, 1);
+    }
+
+    @Test
+    public void testRollbackUnionFind() {
+        RollbackUnionFind uf = new RollbackUnionFind(6);
+        uf.unite(0, 1);
+        int checkpoint = uf.checkpoint();
+        assertTrue(uf.unite(2, 3));
+        assertTrue(uf.unite(1, 3));
+        assertFalse(uf.unite(0, 2));
+        assertEquals(4, uf.size(2));
+        assertEquals(3, uf.count());
+        int inner = uf.checkpoint();
+        assertTrue(uf.unite(4, 5));
+        assertTrue(uf.same(4, 5));
+        uf.rollback(inner);
+        assertFalse(uf.same(4, 5));
+        assertTrue(uf.same(0, 3));
+        uf.rollback(checkpoint);
+        assertTrue(uf.same(0, 1));
+        assertFalse(uf.same(1, 2));
+        assertFalse(uf.same(2, 3));
+        assertEquals(2, uf.size(0));
+        assertEquals(1, uf.size(3));
+        assertEquals(5, uf.count());
+        uf.rollback(0);
+        assertEquals(6, uf.count());
+        assertFalse(uf.same(0, 1));
+    }
+
+    @Test
+    public void testConcurrentUnionFind() throws InterruptedException {
+        final int n = 100000;
+        final int numThreads = 8;
+        final int[][] pairs = new int[n][2];
+        Random random = new Random(4747);
+        for (int[] pair : pairs) {
+            pair[0] = random.nextInt(n);
+            pair[1] = random.nextInt(n);
+        }
+        UnionFindBySize expected = new UnionFindBySize(n);
+        int merges = 0;
+        for (int[] pair : pairs) {
+            if (expected.unite(pair[0], pair[1])) merges++;
+        }
+
+        for (int iter = 0; iter < 5; iter++) {
+            final ConcurrentUnionFind uf = new ConcurrentUnionFind(n);
+            final int[] merged = new int[numThreads];
+            final boolean[] broken = new boolean[numThreads];
+            Thread[] threads = new Thread[numThreads];
+            for (int i = 0; i < numThreads; i++) {
+                final int id = i;
+                threads[i] = new Thread() {
+                    @Override
+                    public void run() {
+                        // 全スレッドが全ての組を違う順で併合して競合させる
+                        for (int j = 0; j < n; j++) {
+                            int[] pair = pairs[(j + id * (n / numThreads)) % n];
+                            if (uf.unite(pair[id & 1], pair[~id & 1])) merged[id]++;
+                            // 併合済みの組は他のスレッドが併合を続けていても同じ集合に見える
+                            if (!uf.same(pair[0], pair[1])) broken[id] = true;
+                        }
+                    }
+                };
+                threads[i].start();
+            }
+            int total = 0;
+            for (int i = 0; i < numThreads; i++) {
+                threads[i].join();
+                total += merged[i];
+                assertFalse(broken[i]);
+            }
+            assertEquals(merges, total);  // 各併合はちょうど1つのスレッドが成功させる
+            for (int v = 0; v < n; v++) {
+                assertEquals(expected.same(v, 0), uf.same(v, 0));
+                assertEquals(expected.same(v, n - 1 - v), uf.same(v, n - 1 - v));
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentUnionFindDepth() {
+        // 番号順に1列につないでも、優先度がランダムなら木は深くならない
+        int n = 1 << 16;
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(n, new Random(4747));
+        for (int i = 0; i + 1 < n; i++) {
+            uf.unite(i, i + 1);
+        }
+        int maxDepth = 0;
+        for (int v = 0; v < n; v++) {
+            int depth = 0;
+            for (int x = v; uf.parent.get(x) != x; x = uf.parent.get(x))
+                depth++;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+        assertTrue(maxDepth < 100);
+    }
+
     @Test
     public void testLazyRMQSegmentTree() {
         LazyRMQSegmentTreeNode tree = new LazyRMQSegmentTreeNode(0, 1000000000);
@@ -104,6 +501,129 @@ public class DataStructuresTest {
         assertEquals(60000000, tree.minRange(54697200, 99999999));
     }
 
+    @Test
+    public void testDynamicSegmentTreeWideRange() {
+        // 根の集約値は3×2^62で溢れるが、答えがlongに収まる質問は正しく答える
+        long size = 1L << 62;
+        DynamicSegmentTree tree = new DynamicSegmentTree(size, LongMonoid.SUM);
+        tree.add(0, size, 3);
+        assertEquals(15, tree.query(5, 10));
+        assertEquals(3L << 60, tree.query(0, 1L << 60));
+        // 左半分を-1、右半分を1にすると全体の和は0に戻る
+        tree.add(0, size / 2, -4);
+        tree.add(size / 2, size, -2);
+        assertEquals(0, tree.query(0, size));
+        assertEquals(-(1L << 40), tree.query(0, 1L << 40));
+        assertEquals(-1, tree.query(size / 2 - 1, size / 2));
+        assertEquals(1, tree.query(size / 2, size / 2 + 1));
+    }
+
+    @Test
+    public void testDynamicSegmentTree() {
+        Random random = new Random(4747);
+        long size = 1L << 62;
+        // 端点はこの中から選ぶ
+        long[] points = { 0, 1, 2, 1L << 30, 1L << 40, (1L << 40) + 1, size / 3, size - 2,
+                size - 1, size };
+        for (LongMonoid monoid : new LongMonoid[] { LongMonoid.SUM, LongMonoid.MIN }) {
+            DynamicSegmentTree tree = new DynamicSegmentTree(size, monoid, 2);
+            for (int round = 0; round < 3; round++) {
+                tree.clear();
+                assertEquals(2, tree.numNodes());
+                ArrayList<long[]> updates = new ArrayList<long[]>();
+                for (int iter = 0; iter < 200; iter++) {
+                    int i = random.nextInt(points.length), j = random.nextInt(points.length);
+                    long l = points[Math.min(i, j)], r = points[Math.max(i, j)];
+                    long x = random.nextInt(2000) - 1000;
+                    tree.add(l, r, x);
+                    updates.add(new long[] { l, r, x });
+
+                    i = random.nextInt(points.length);
+                    j = random.nextInt(points.length);
+                    l = points[Math.min(i, j)];
+                    r = points[Math.max(i, j)];
+                    long expected = monoid.identity();
+                    if (monoid == LongMonoid.SUM) {
+                        for (long[] u : updates) {
+                            long overlap = Math.min(r, u[1]) - Math.max(l, u[0]);
+                            if (overlap > 0) expected += overlap * u[2];
+                        }
+                    }
+                    else {
+                        for (long p : points) {  // 値は端点の間で一定
+                            if (p < l || r <= p) continue;
+                            long v = 0;
+                            for (long[] u : updates) {
+                                if (u[0] <= p && p < u[1]) v += u[2];
+                            }
+                            expected = Math.min(expected, v);
+                        }
+                    }
+                    assertEquals(expected, tree.query(l, r));
+                }
+                assertTrue(tree.numNodes() < 200 * 4 * 63);
+            }
+        }
+    }
+
+    @Test
+    public void testPersistentSegmentTree() {
+        Random random = new Random(4747);
+        int n = 37;
+        PersistentSegmentTree tree = new PersistentSegmentTree(n, 1);
+        ArrayList<long[]> snapshots = new ArrayList<long[]>();
+        ArrayList<Integer> versions = new ArrayList<Integer>();
+        snapshots.add(new long[n]);
+        versions.add(PersistentSegmentTree.EMPTY);
+        for (int iter = 0; iter < 300; iter++) {
+            int base = random.nextInt(versions.size());  // 古い版から枝分かれさせる
+            int i = random.nextInt(n);
+            long x = random.nextInt(5);
+            long[] values = snapshots.get(base).clone();
+            values[i] += x;
+            int nodes = tree.numNodes();
+            versions.add(tree.add(versions.get(base), i, x));
+            snapshots.add(values);
+            assertTrue(tree.numNodes() - nodes <= 7);  // 根から葉までの節点数だけ増える
+
+            int v = random.nextInt(versions.size());
+            values = snapshots.get(v);
+            int l = random.nextInt(n + 1), r = l + random.nextInt(n - l + 1);
+            long expected = 0;
+            for (int j = l; j < r; j++) {
+                expected += values[j];
+            }
+            assertEquals(expected, tree.sum(versions.get(v), l, r));
+
+            long k = random.nextInt(50);
+            int expectedIndex = 0;
+            for (long count = values[0]; expectedIndex < n && count <= k;) {
+                if (++expectedIndex < n) count += values[expectedIndex];
+            }
+            assertEquals(expectedIndex, tree.kth(versions.get(v), k));
+        }
+
+        // 区間の中でk番目に小さい値
+        int[] a = new int[200];
+        int[] prefixVersions = new int[a.length + 1];
+        tree = new PersistentSegmentTree(100);
+        for (int i = 0; i < a.length; i++) {
+            a[i] = random.nextInt(100);
+            prefixVersions[i + 1] = tree.add(prefixVersions[i], a[i], 1);
+        }
+        for (int iter = 0; iter < 200; iter++) {
+            int l = random.nextInt(a.length), r = l + 1 + random.nextInt(a.length - l);
+            int[] sorted = Arrays.copyOfRange(a, l, r);
+            Arrays.sort(sorted);
+            int k = random.nextInt(r - l);
+            assertEquals(sorted[k], tree.kth(prefixVersions[l], prefixVersions[r], k));
+            assertEquals(100, tree.kth(prefixVersions[l], prefixVersions[r], r - l));
+        }
+        tree.clear();
+        assertEquals(1, tree.numNodes());
+        assertEquals(0, tree.sum(tree.add(PersistentSegmentTree.EMPTY, 3, 5), 0, 3));
+    }
+
     @Test
     public void testArrayRMQSegmentTree() {
         ArrayRMQSegmentTree tree = new ArrayRMQSegmentTree(100000);
@@ -131,6 +651,209 @@ public class DataStructuresTest {
         assertEquals(9000, tree.minRange(99000, 100000));
     }
 
+    /** 左から見て最初の0でない値。結合的だが非可換 */
+    static final IntMonoid FIRST_NONZERO = new IntMonoid() {
+        @Override
+        public int identity() {
+            return 0;
+        }
+
+        @Override
+        public int op(int a, int b) {
+            return a != 0 ? a : b;
+        }
+    };
+
+    @Test
+    public void testSegmentTree() {
+        Random random = new Random(4747);
+        IntMonoid[] monoids = { IntMonoid.MIN, IntMonoid.MAX, IntMonoid.SUM, IntMonoid.XOR,
+                FIRST_NONZERO };
+        for (IntMonoid monoid : monoids) {
+            for (int n = 1; n <= 70; n += 23) {
+                int[] values = new int[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = random.nextInt(5) == 0 ? 0 : random.nextInt(2000) - 1000;
+                }
+                IntSegmentTree tree = new IntSegmentTree(values, monoid);
+                LongSegmentTree longTree = new LongSegmentTree(n, LongMonoid.SUM);
+                for (int i = 0; i < n; i++) {
+                    longTree.set(i, values[i] * (1L << 31));
+                }
+                for (int iter = 0; iter < 200; iter++) {
+                    int i = random.nextInt(n);
+                    values[i] = random.nextInt(2000) - 1000;
+                    tree.set(i, values[i]);
+                    longTree.set(i, values[i] * (1L << 31));
+                    assertEquals(values[i], tree.get(i));
+
+                    int l = random.nextInt(n + 1), r = l + random.nextInt(n - l + 1);
+                    int expected = monoid.identity();
+                    long expectedSum = 0;
+                    for (int j = l; j < r; j++) {
+                        expected = monoid.op(expected, values[j]);
+                        expectedSum += values[j] * (1L << 31);
+                    }
+                    assertEquals(expected, tree.query(l, r));
+                    assertEquals(expectedSum, longTree.query(l, r));
+                }
+                assertEquals(tree.query(0, n), tree.all());
+            }
+        }
+    }
+
+    @Test
+    public void testLongLazySegmentTree() {
+        Random random = new Random(4747);
+        LongMonoid[] monoids = { LongMonoid.SUM, LongMonoid.MIN, LongMonoid.MAX };
+        for (LongMonoid monoid : monoids) {
+            for (int n = 1; n <= 70; n += 23) {
+                long[] values = new long[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = random.nextInt(2000) - 1000;
+                }
+                LongLazySegmentTree tree = new LongLazySegmentTree(values, monoid);
+                for (int iter = 0; iter < 500; iter++) {
+                    int l = random.nextInt(n + 1), r = l + random.nextInt(n - l + 1);
+                    long x = (random.nextInt(2000) - 1000) * (1L << 30);
+                    int op = random.nextInt(3);
+                    if (op == 0) {
+                        tree.add(l, r, x);
+                        for (int j = l; j < r; j++) {
+                            values[j] += x;
+                        }
+                    }
+                    else if (op == 1) {
+                        tree.assign(l, r, x);
+                        Arrays.fill(values, l, r, x);
+                    }
+                    else if (l < n) {
+                        assertEquals(values[l], tree.get(l));
+                    }
+
+                    l = random.nextInt(n + 1);
+                    r = l + random.nextInt(n - l + 1);
+                    long expected = monoid.identity();
+                    for (int j = l; j < r; j++) {
+                        expected = monoid.op(expected, values[j]);
+                    }
+                    assertEquals(expected, tree.query(l, r));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSegmentTreeSearch() {
+        Random random = new Random(4747);
+        for (int n = 1; n <= 100; n += 33) {
+            int[] values = new int[n];
+            long[] longValues = new long[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = random.nextInt(1000);
+                longValues[i] = random.nextInt(1000);
+            }
+            IntSegmentTree minTree = new IntSegmentTree(values, IntMonoid.MIN);
+            LongSegmentTree sumTree = new LongSegmentTree(longValues, LongMonoid.SUM);
+            LongLazySegmentTree lazySumTree = new LongLazySegmentTree(longValues, LongMonoid.SUM);
+            for (int iter = 0; iter < 300; iter++) {
+                final int threshold = random.nextInt(1000);
+                final long limit = random.nextInt(1000 * n);
+                IntPredicate notBelow = new IntPredicate() {
+                    @Override
+                    public boolean test(int x) {
+                        return x >= threshold;
+                    }
+                };
+                LongPredicate atMost = new LongPredicate() {
+                    @Override
+                    public boolean test(long x) {
+                        return x <= limit;
+                    }
+                };
+
+                int l = random.nextInt(n + 1);
+                int expected = l;  // 最小値がthresholdを下回る最初の位置
+                while (expected < n && values[expected] >= threshold) {
+                    expected++;
+                }
+                assertEquals(expected, minTree.maxRight(l, notBelow));
+                long sum = 0;
+                expected = l;
+                while (expected < n && sum + longValues[expected] <= limit) {
+                    sum += longValues[expected++];
+                }
+                assertEquals(expected, sumTree.maxRight(l, atMost));
+                assertEquals(expected, lazySumTree.maxRight(l, atMost));
+
+                int r = random.nextInt(n + 1);
+                expected = r;
+                while (expected > 0 && values[expected - 1] >= threshold) {
+                    expected--;
+                }
+                assertEquals(expected, minTree.minLeft(r, notBelow));
+                sum = 0;
+                expected = r;
+                while (expected > 0 && sum + longValues[expected - 1] <= limit) {
+                    sum += longValues[--expected];
+                }
+                assertEquals(expected, sumTree.minLeft(r, atMost));
+                assertEquals(expected, lazySumTree.minLeft(r, atMost));
+
+                int i = random.nextInt(n);
+                values[i] = random.nextInt(1000);
+                minTree.set(i, values[i]);
+                long delta = random.nextInt(1000) - longValues[i];
+                longValues[i] += delta;
+                sumTree.set(i, longValues[i]);
+                lazySumTree.add(i, i + 1, delta);
+                if (iter % 10 == 0) {  // 遅延させた操作が残った状態で探索させる
+                    int to = random.nextInt(n + 1);
+                    long x = random.nextInt(1000);
+                    Arrays.fill(longValues, 0, to, x);
+                    lazySumTree.assign(0, to, x);
+                    for (int j = 0; j < to; j++) {
+                        sumTree.set(j, x);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLongLazySegmentTreeInitialZeros() {
+        for (LongMonoid monoid : new LongMonoid[] { LongMonoid.SUM, LongMonoid.MIN,
+                LongMonoid.MAX }) {
+            for (int n = 1; n <= 6; n++) {
+                LongLazySegmentTree tree = new LongLazySegmentTree(n, monoid);
+                LongLazySegmentTree expected = new LongLazySegmentTree(new long[n], monoid);
+                assertEquals(expected.query(0, n), tree.query(0, n));
+                tree.add(0, n, 5);
+                expected.add(0, n, 5);
+                tree.add(n - 1, n, -2);
+                expected.add(n - 1, n, -2);
+                for (int l = 0; l < n; l++) {
+                    for (int r = l + 1; r <= n; r++) {
+                        assertEquals(expected.query(l, r), tree.query(l, r));
+                    }
+                    assertEquals(l == n - 1 ? 3 : 5, tree.get(l));
+                }
+            }
+        }
+        LongLazySegmentTree tree = new LongLazySegmentTree(4, LongMonoid.MIN);
+        tree.add(0, 4, 5);
+        assertEquals(5, tree.query(0, 4));
+        tree = new LongLazySegmentTree(4, LongMonoid.MAX);
+        tree.add(1, 3, -5);
+        assertEquals(0, tree.query(0, 4));
+        assertEquals(-5, tree.query(1, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLongLazySegmentTreeUnsupportedMonoid() {
+        new LongLazySegmentTree(10, LongMonoid.XOR);
+    }
+
     @Test
     public void testRMQSparseTable() {
         int[] data = new int[100000];
@@ -157,6 +880,59 @@ public class DataStructuresTest {
         assertEquals(9000, st.minRange(99000, 100000));
     }
 
+    @Test
+    public void testBlockRMQ() {
+        Random random = new Random(4747);
+        for (int n = 1; n <= 1000; n += 111) {
+            int[] data = new int[n];
+            for (int i = 0; i < n; i++) {
+                data[i] = random.nextInt(i % 3 == 0 ? 10 : MAX_VALUE) - random.nextInt(5);
+            }
+            BlockRMQ rmq = new BlockRMQ(data);
+            RMQSparseTable st = new RMQSparseTable(data);
+            for (int iter = 0; iter < 500; iter++) {
+                int l = random.nextInt(n), r = l + 1 + random.nextInt(n - l);
+                // ブロック内やその境界
+                if (iter % 3 == 0) r = Math.min(n, l + 1 + random.nextInt(70));
+                assertEquals(st.minRange(l, r), rmq.minRange(l, r));
+            }
+        }
+    }
+
+    @Test
+    public void testDisjointSparseTable() {
+        LongMonoid firstNonzero = new LongMonoid() {
+            @Override
+            public long identity() {
+                return 0;
+            }
+
+            @Override
+            public long op(long a, long b) {
+                return a != 0 ? a : b;
+            }
+        };
+        Random random = new Random(4747);
+        for (LongMonoid monoid : new LongMonoid[] { LongMonoid.SUM, LongMonoid.XOR,
+                LongMonoid.MAX, firstNonzero }) {
+            for (int n = 1; n <= 300; n += 37) {
+                long[] values = new long[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = random.nextInt(4) == 0 ? 0 : random.nextLong();
+                }
+                DisjointSparseTable table = new DisjointSparseTable(values, monoid);
+                for (int l = 0; l <= n; l++) {
+                    long expected = monoid.identity();
+                    assertEquals(expected, table.query(l, l));
+                    for (int r = l + 1; r <= n; r++) {
+                        expected = monoid.op(expected, values[r - 1]);
+                        assertEquals(expected, table.query(l, r));
+                    }
+                }
+            }
+        }
+    }
+
     @Test
     public void testBitTrie() {
         BitTrie trie = new BitTrie(63);
@@ -0,0 +1,105 @@
+package jp.dai1741.competitive;
+
+import static org.junit.Assert.*;
+
+import jp.dai1741.competitive.Graphs.AdjGraph;
+import jp.dai1741.competitive.Graphs.Edge;
+import jp.dai1741.competitive.Graphs.EdgeGraph;
+import jp.dai1741.competitive.Graphs.FlowAdjGraph;
+import jp.dai1741.competitive.Graphs.MatrixGraph;
+
+import static jp.dai1741.competitive.GraphGenerators.*;
+import static jp.dai1741.competitive.Graphs.*;
+
+import org.junit.Test;
+
+public class GraphGeneratorsTest {
+
+    @Test
+    public void testDeterminism() {
+        EdgeGraph g1 = new EdgeGraph(1000);
+        EdgeGraph g2 = new EdgeGraph(1000);
+        new GraphGenerators(4747).rmat(sinkOf(g1, false), 1000, 5000);
+        new GraphGenerators(4747).rmat(sinkOf(g2, false), 1000, 5000);
+        assertEquals(5000, g1.edges.size());
+        for (int i = 0; i < 5000; i++) {
+            Edge e1 = g1.edges.get(i);
+            Edge e2 = g2.edges.get(i);
+            assertEquals(e1.from, e2.from);
+            assertEquals(e1.to, e2.to);
+            assertEquals(e1.cost, e2.cost);
+            assertEquals(e1.capacity, e2.capacity);
+            assertTrue(e1.from != e1.to);
+            assertTrue(0 <= e1.from && e1.from < 1000);
+            assertTrue(0 <= e1.to && e1.to < 1000);
+        }
+
+        int[] degree = new int[1000];
+        for (Edge e : g1.edges) {
+            degree[e.from]++;
+        }
+        assertTrue(degree[0] > 50);  // 平均は5
+    }
+
+    @Test
+    public void testShortestPathConsistency() {
+        MatrixGraph mg = new MatrixGraph(30 * 20);
+        AdjGraph ag = new AdjGraph(30 * 20);
+        EdgeGraph eg = new EdgeGraph(30 * 20);
+        new GraphGenerators(1).grid(sinkOf(sinkOf(mg, false), sinkOf(ag, false),
+                sinkOf(eg, false)), 30, 20);
+        assertEquals(2 * (2 * 30 * 20 - 30 - 20), eg.edges.size());
+        for (int s = 0; s < 600; s += 97) {
+            int[] dists = dijkstra(ag, s);
+            assertArrayEquals(dists, dijkstra(mg, s));
+            assertArrayEquals(dists, bellmanFord(eg, s));
+        }
+
+        ag = new AdjGraph(300);
+        eg = new EdgeGraph(300);
+        new GraphGenerators(2).erdosRenyi(sinkOf(sinkOf(ag, false), sinkOf(eg, false)), 300,
+                1500);
+        for (int s = 0; s < 300; s += 37) {
+            assertArrayEquals(dijkstra(ag, s), bellmanFord(eg, s));
+        }
+
+        // 多重辺だらけでも、distinctを挟めばMatrixGraphと同じグラフになる
+        mg = new MatrixGraph(20);
+        ag = new AdjGraph(20);
+        new GraphGenerators(3).erdosRenyi(distinct(sinkOf(sinkOf(mg, false), sinkOf(ag,
+                false))), 20, 1000);
+        for (int s = 0; s < 20; s++) {
+            assertArrayEquals(dijkstra(ag, s), dijkstra(mg, s));
+        }
+    }
+
+    @Test
+    public void testFlowConsistency() {
+        FlowAdjGraph g = new FlowAdjGraph(10 * 8 + 2);
+        GraphGenerators gen = new GraphGenerators(3);
+        gen.maxCapacity = 20;
+        int n = gen.layeredFlowNetwork(sinkOf(g, false), 10, 8, 3);
+        assertEquals(82, n);
+        int maxFlow = edmondsKarp(g, 0, n - 1);
+        assertTrue(maxFlow > 0);
+        g.resetFlow();
+        int cost = minCostFlowWithPrimalDual(g, 0, n - 1, maxFlow);
+        assertTrue(cost > 0);
+        g.resetFlow();
+        assertEquals(cost, minCostFlowWithBellmanFord(g, 0, n - 1, maxFlow));
+        g.resetFlow();
+        assertEquals(-1, minCostFlowWithPrimalDual(g, 0, n - 1, maxFlow + 1));
+
+        AdjGraph bg = new AdjGraph(200);
+        FlowAdjGraph fg = new FlowAdjGraph(202);
+        gen.maxCapacity = 1;
+        gen.bipartite(sinkOf(sinkOf(bg, true), sinkOf(fg, false)), 100, 100, 250);
+        for (int i = 0; i < 100; i++) {
+            fg.add(200, i, 0, 1);
+            fg.add(100 + i, 201, 0, 1);
+        }
+        int matching = bipartiteMatching(bg);
+        assertTrue(matching > 50);
+        assertEquals(matching, edmondsKarp(fg, 200, 201));
+    }
+}
@@ -14,7 +14,11 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import java.awt.geom.IllegalPathStateException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 import java.util.Scanner;
 
@@ -153,6 +157,223 @@ public class GraphsTest {
         assertEquals(INF, dijkstra(noedges.matrixGraph, 2, 6));
     }
 
+    @Test
+    public void testBfsShortestPaths() {
+        AllGraph g = standardWaightedGraph;
+        BfsShortestPaths bfs = new BfsShortestPaths(g.n);
+        assertArrayEquals(dijkstra(g.adjGraph, 3), bfs.run(g.adjGraph, 3));
+        int[] prev = new int[g.n];
+        dijkstraWithPath(g.adjGraph, 3, prev);
+        assertArrayEquals(prev, bfs.prev);
+
+        AllGraph unit = makeGraph("8 " + "0 1  0 5  1 2  2 0  2 3  3 4  3 7 "
+                + "4 1  4 3  4 5  5 2  5 3  5 7  6 1  7 0", false, false);
+        CsrGraph csr = new CsrGraph(unit.adjGraph);
+        assertEquals(15, csr.numArcs());
+        assertArrayEquals(new int[] { 0, 1, 2, 2, 3, 1, INF, 2 }, bfs.run(unit.adjGraph, 0));
+        assertEquals(Arrays.asList(0, 5, 7), getPath(bfs.prev, 0, 7));
+        assertArrayEquals(new int[] { 0, 1, 2, 2, 3, 1, INF, 2 }, bfs.run(csr, 0));
+        assertArrayEquals(dijkstra(unit.adjGraph, 6), bfs.bfs(csr, 6));
+
+        Random random = new Random(4747);
+        AdjGraph zeroOne = new AdjGraph(500);
+        int[] from = new int[3000], to = new int[3000], cost = new int[3000];
+        for (int i = 0; i < 3000; i++) {
+            from[i] = random.nextInt(500);
+            to[i] = random.nextInt(500);
+            cost[i] = random.nextInt(2);
+            zeroOne.addArc(new Edge(from[i], to[i], cost[i]));
+        }
+        assertEquals(0, zeroOne.minCost);
+        assertEquals(1, zeroOne.maxCost);
+        csr = new CsrGraph(500, from, to, cost, 3000);
+        bfs = new BfsShortestPaths(500);
+        for (int s = 0; s < 500; s += 43) {
+            int[] expected = dijkstra(zeroOne, s);
+            assertArrayEquals(expected, bfs.run(zeroOne, s));
+            for (int v = 0; v < 500; v++) {
+                if (v == s || expected[v] == INF) continue;
+                boolean found = false;
+                for (Edge e : zeroOne.edges[bfs.prev[v]]) {
+                    found |= e.to == v && expected[e.from] + e.cost == expected[v];
+                }
+                assertTrue(found);
+            }
+            assertArrayEquals(expected, bfs.run(csr, s));
+        }
+
+        // addArc()を通さずに枝を加えるとコストの範囲は不明になる
+        AdjGraph direct = new AdjGraph(4);
+        direct.edges[0].add(new Edge(0, 1, 10));
+        direct.edges[0].add(new Edge(0, 2, 1));
+        direct.edges[2].add(new Edge(2, 1, 1));
+        direct.edges[1].add(new Edge(1, 3, 1));
+        bfs = new BfsShortestPaths(4);
+        assertArrayEquals(new int[] { 0, 2, 1, 3 }, bfs.run(direct, 0));
+        assertArrayEquals(new int[] { 0, 2, 1, 3 }, bfs.run(new CsrGraph(direct), 0));
+        assertArrayEquals(new int[] { INF, 0, INF, INF }, bfs.run(new AdjGraph(4), 1));
+        assertArrayEquals(new int[] { INF, 0, INF, INF }, bfs.run(new CsrGraph(new AdjGraph(4)),
+                1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBfsShortestPathsNegativeCost() {
+        AdjGraph g = new AdjGraph(2);
+        g.addArc(new Edge(0, 1, -1));
+        new BfsShortestPaths(2).run(new CsrGraph(g), 0);
+    }
+
+    @Test
+    public void testBfsShortestPathsNegativeCostAdjGraph() {
+        AdjGraph g = new AdjGraph(3);
+        g.addArc(new Edge(0, 1, 2));
+        g.addArc(new Edge(1, 2, -1));
+        BfsShortestPaths bfs = new BfsShortestPaths(3);
+        try {
+            bfs.run(g, 0);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+        }
+
+        // addArc()を通さずに加えた負の枝も見つける
+        AdjGraph direct = new AdjGraph(3);
+        direct.edges[0].add(new Edge(0, 1, 2));
+        direct.edges[1].add(new Edge(1, 0, -2));
+        try {
+            bfs.run(direct, 0);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testParallelBfs() {
+        final int n = 20000;
+        final int[] from = new int[100000], to = new int[100000];
+        new GraphGenerators(47).rmat(new GraphGenerators.ArcSink() {
+            int m = 0;
+
+            @Override
+            public void arc(int u, int v, int cost, int capacity) {
+                from[m] = u;
+                to[m++] = v;
+            }
+        }, n, 100000);
+        CsrGraph csr = new CsrGraph(n, from, to, null, 100000);
+        CsrGraph reversed = csr.reverse();
+        assertEquals(csr.numArcs(), reversed.numArcs());
+
+        BfsShortestPaths seq = new BfsShortestPaths(n);
+        for (int threads : new int[] { 1, 4 }) {
+            ParallelBfs bfs = new ParallelBfs(csr, reversed, threads);
+            for (double alpha : new double[] { 14, 1e-9, 1e9 }) {  // 自動、トップダウンのみ、ボトムアップ優先
+                bfs.alpha = alpha;
+                bfs.beta = alpha;
+                for (int s = 0; s < n; s += 4999) {
+                    int[] expected = seq.bfs(csr, s);
+                    int[] levels = bfs.run(s);
+                    for (int v = 0; v < n; v++) {
+                        assertEquals(expected[v] == INF ? -1 : expected[v], levels[v]);
+                    }
+                }
+            }
+            bfs.shutdown();
+        }
+
+        AdjGraph undirected = new AdjGraph(3000);
+        new GraphGenerators(48).grid(GraphGenerators.sinkOf(undirected, false), 60, 50);
+        ParallelBfs bfs = new ParallelBfs(new CsrGraph(undirected), null, 3);
+        int[] levels = bfs.run(0);
+        assertEquals(0, levels[0]);
+        assertEquals(59 + 49, levels[2999]);
+        assertEquals(10 + 20, levels[20 * 60 + 10]);
+        assertSame(levels, bfs.run(2999));  // 作業領域は使い回される
+        assertEquals(59 + 49, levels[0]);
+        assertEquals(0, levels[2999]);
+        bfs.shutdown();
+    }
+
+    @Test
+    public void testKShortestPaths() {
+        // C, D, E, F, G, Hを0から5とする
+        AllGraph g = makeGraph("6 0 1 3  0 2 2  1 3 4  2 1 1  2 3 2  2 4 3  3 4 2  3 5 1  4 5 2",
+                true, false);
+        KShortestPaths ksp = new KShortestPaths(g.adjGraph);
+        assertEquals(3, ksp.run(0, 5, 3));
+        assertArrayEquals(new long[] { 5, 7, 8 }, ksp.costs);  // コスト8の経路は3本ある
+        assertArrayEquals(new int[] { 0, 2, 3, 5 }, ksp.paths[0]);
+        assertArrayEquals(new int[] { 0, 2, 4, 5 }, ksp.paths[1]);
+        assertEquals(7, ksp.run(0, 5, 100));  // 単純路は7本しかない
+        assertEquals(1, ksp.run(3, 3, 5));
+        assertEquals(0, ksp.run(5, 0, 5));
+        assertEquals(0, ksp.run(0, 5, 0));
+        assertEquals(0, ksp.paths.length);
+        assertEquals(0, ksp.costs.length);
+
+        // 経路のコストがintに収まらなくても溢れない
+        AllGraph heavy = makeGraph("4 0 1 2000000000  1 3 2000000000  0 2 2000000000 "
+                + " 2 3 2100000000", true, false);
+        ksp = new KShortestPaths(heavy.adjGraph);
+        assertEquals(2, ksp.run(0, 3, 5));
+        assertArrayEquals(new long[] { 4000000000L, 4100000000L }, ksp.costs);
+
+        Random random = new Random(4747);
+        for (int iter = 0; iter < 30; iter++) {
+            int n = random.nextInt(7) + 2;
+            AdjGraph ag = new AdjGraph(n);
+            GraphGenerators gen = new GraphGenerators(iter);
+            gen.maxCost = 5;
+            gen.erdosRenyi(GraphGenerators.sinkOf(ag, false), n, random.nextInt(n * 3));
+            ksp = new KShortestPaths(ag);
+            int s = random.nextInt(n);
+            int t = random.nextInt(n);
+            ArrayList<Integer> expected = new ArrayList<Integer>();
+            enumerateSimplePaths(ag, s, t, 0, new boolean[n], expected);
+            Collections.sort(expected);
+            int k = random.nextInt(10) + 1;
+            int found = ksp.run(s, t, k);
+            assertEquals(Math.min(k, expected.size()), found);
+            HashSet<String> distinct = new HashSet<String>();
+            for (int i = 0; i < found; i++) {
+                assertEquals((long) expected.get(i), ksp.costs[i]);
+                int[] path = ksp.paths[i];
+                assertEquals(s, path[0]);
+                assertEquals(t, path[path.length - 1]);
+                boolean[] visited = new boolean[n];
+                for (int v : path) {
+                    assertFalse(visited[v]);
+                    visited[v] = true;
+                }
+                assertTrue(distinct.add(Arrays.toString(path)) || hasParallelArcs(ag));
+            }
+        }
+    }
+
+    private static void enumerateSimplePaths(AdjGraph g, int v, int t, int cost,
+            boolean[] visited, List<Integer> costs) {
+        if (v == t) {
+            costs.add(cost);
+            return;
+        }
+        visited[v] = true;
+        for (Edge e : g.edges[v]) {
+            if (!visited[e.to]) enumerateSimplePaths(g, e.to, t, cost + e.cost, visited, costs);
+        }
+        visited[v] = false;
+    }
+
+    private static boolean hasParallelArcs(AdjGraph g) {
+        for (int v = 0; v < g.n; v++) {
+            HashSet<Integer> targets = new HashSet<Integer>();
+            for (Edge e : g.edges[v]) {
+                if (!targets.add(e.to)) return true;
+            }
+        }
+        return false;
+    }
+
     @Test
     public void testBellmanFord() {
         AllGraph g = graphWithNegativeEdge;
@@ -223,6 +444,87 @@ public class GraphsTest {
         assertEquals(0, kruskal(noedges.edgeGraph)); // ??
     }
 
+    @Test
+    public void testOfflineDynamicConnectivity() {
+        OfflineDynamicConnectivity dc = new OfflineDynamicConnectivity(4);
+        dc.query(0, 1);
+        dc.addEdge(0, 1);
+        dc.addEdge(1, 2);
+        dc.query(0, 2);
+        dc.addEdge(2, 1);  // 多重辺
+        dc.removeEdge(1, 2);
+        dc.query(0, 2);
+        dc.removeEdge(2, 1);
+        dc.query(0, 2);
+        dc.addEdge(3, 0);
+        dc.query(1, 3);
+        dc.run();
+        assertEquals("[false, true, true, false, true]", Arrays.toString(dc.connected));
+        assertArrayEquals(new int[] { 4, 2, 2, 3, 2 }, dc.counts);
+
+        Random random = new Random(4747);
+        int n = 30;
+        dc = new OfflineDynamicConnectivity(n);
+        ArrayList<int[]> edges = new ArrayList<int[]>();
+        ArrayList<Boolean> expected = new ArrayList<Boolean>();
+        ArrayList<Integer> expectedCounts = new ArrayList<Integer>();
+        for (int iter = 0; iter < 3000; iter++) {
+            int op = random.nextInt(3);
+            if (op == 0 || edges.isEmpty()) {
+                int[] e = { random.nextInt(n), random.nextInt(n) };
+                edges.add(e);
+                dc.addEdge(e[0], e[1]);
+            }
+            else if (op == 1) {
+                int[] e = edges.remove(random.nextInt(edges.size()));
+                dc.removeEdge(e[1], e[0]);
+            }
+            else {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                DataStructures.UnionFindBySize uf = new DataStructures.UnionFindBySize(n);
+                for (int[] e : edges) {
+                    uf.unite(e[0], e[1]);
+                }
+                expected.add(uf.same(u, v));
+                expectedCounts.add(uf.count());
+                assertEquals(expected.size() - 1, dc.query(u, v));
+            }
+        }
+        dc.run();
+        assertEquals(expected.toString(), Arrays.toString(dc.connected));
+        assertEquals(expectedCounts.toString(), Arrays.toString(dc.counts));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfflineDynamicConnectivityRemovingMissingEdge() {
+        OfflineDynamicConnectivity dc = new OfflineDynamicConnectivity(3);
+        dc.addEdge(0, 1);
+        dc.removeEdge(1, 2);
+    }
+
+    @Test
+    public void testConnectedComponents() {
+        AllGraph g = makeGraph("8 0 3  3 5  1 2  6 2  4 4", false, false);
+        int[] components = new int[8];
+        assertEquals(4, connectedComponents(g.edgeGraph, components, 3));
+        assertArrayEquals(new int[] { 0, 1, 1, 0, 2, 0, 1, 3 }, components);
+
+        EdgeGraph eg = new EdgeGraph(200000);
+        new GraphGenerators(4747).erdosRenyi(GraphGenerators.sinkOf(eg, false), 200000, 110000);
+        components = new int[eg.n];
+        DataStructures.UnionFindBySize uf = new DataStructures.UnionFindBySize(eg.n);
+        for (Edge e : eg.edges) {
+            uf.unite(e.from, e.to);
+        }
+        for (int numThreads = 1; numThreads <= 8; numThreads *= 2) {
+            assertEquals(uf.count(), connectedComponents(eg, components, numThreads));
+            for (Edge e : eg.edges) {
+                assertEquals(components[e.from], components[e.to]);
+            }
+        }
+    }
+
     @Test
     public void testEdmondsKarp() {
         AllGraph g = makeGraph("8 " + "0 1 3  0 5 2  1 2 3  2 0 9  2 3 3  3 4 1  3 7 3 "
@@ -259,6 +561,114 @@ public class GraphsTest {
         assertEquals(532, edmondsKarp(big.flowAdjGraph, 1, 99));
     }
 
+    @Test
+    public void testDinic() {
+        AllGraph g = makeGraph("7 " + "0 1 45  0 2 30  1 2 10  1 3 19  2 4 60  2 5 14  3 5 8 "
+                + "3 6 22  4 3 11  4 6 37  5 2 10  5 4 33  5 6 1  ", false, true);
+        assertEquals(59, dinic(g.flowAdjGraph, 0, 6));
+        assertEquals(0, dinic(noedges.flowAdjGraph, 0, 4));
+
+        g = standardCostFlowGraph;
+        assertEquals(11, dinic(g.flowAdjGraph, 0, 7));
+        g.flowAdjGraph.resetFlow();
+
+        FlowAdjGraph big = new FlowAdjGraph(2000);
+        new GraphGenerators(5).erdosRenyi(GraphGenerators.sinkOf(big, false), 2000, 20000);
+        for (int s = 0; s < 2000; s += 499) {
+            int t = 1999 - s;
+            big.resetFlow();
+            int expected = edmondsKarp(big, s, t);
+            big.resetFlow();
+            assertEquals(expected, dinic(big, s, t));
+        }
+
+        // 再帰ではスタックが溢れる深さの層
+        int len = 200000;
+        FlowAdjGraph chain = new FlowAdjGraph(len);
+        for (int v = 0; v + 1 < len; v++) {
+            chain.add(v, v + 1, 0, 3 + v % 5);
+        }
+        chain.add(0, len - 1, 0, 1);
+        assertEquals(4, dinic(chain, 0, len - 1));
+    }
+
+    @Test
+    public void testGomoryHuTree() {
+        Random random = new Random(4747);
+        for (int iter = 0; iter < 20; iter++) {
+            int n = random.nextInt(15) + 2;
+            FlowAdjGraph g = new FlowAdjGraph(n);
+            new GraphGenerators(iter).erdosRenyi(GraphGenerators.sinkOf(g, true), n,
+                    random.nextInt(n * 3));
+            GomoryHuTree tree = new GomoryHuTree(g);
+            for (int u = 0; u < n; u++) {
+                assertEquals(INF, tree.minCut(u, u));
+                for (int v = u + 1; v < n; v++) {
+                    g.resetFlow();
+                    int expected = edmondsKarp(g, u, v);
+                    assertEquals(expected, tree.minCut(u, v));
+                    assertEquals(expected, tree.minCut(v, u));
+                }
+            }
+        }
+
+        new GomoryHuTree(new FlowAdjGraph(0));
+        assertEquals(INF, new GomoryHuTree(new FlowAdjGraph(1)).minCut(0, 0));
+    }
+
+    @Test
+    public void testStoerWagner() {
+        // 論文の例を0-indexedにしたもの
+        AllGraph g = makeGraph("8 0 1 2  0 4 3  1 2 3  1 4 2  1 5 2  2 3 4  2 6 2 "
+                + " 3 6 2  3 7 2  4 5 3  5 6 1  6 7 3", true, false, true);
+        boolean[] partition = new boolean[8];
+        assertEquals(4, stoerWagner(g.matrixGraph, partition));
+        assertEquals(Arrays.toString(new boolean[] { false, false, true, true, false, false,
+                true, true }), Arrays.toString(partition[0] ? negate(partition) : partition));
+
+        assertEquals(INF, stoerWagner(new MatrixGraph(1), null));
+        assertEquals(0, stoerWagner(noedges.matrixGraph, null));
+
+        Random random = new Random(4747);
+        for (int iter = 0; iter < 30; iter++) {
+            int n = random.nextInt(9) + 2;
+            MatrixGraph mg = new MatrixGraph(n);
+            new GraphGenerators(iter).erdosRenyi(GraphGenerators.sinkOf(mg, true), n,
+                    random.nextInt(n * n));
+            int expected = INF;
+            for (int mask = 1; mask < (1 << n) - 1; mask++) {  // 全探索
+                expected = Math.min(expected, cutWeight(mg, mask));
+            }
+            partition = new boolean[n];
+            assertEquals(expected, stoerWagner(mg, partition));
+            int mask = 0;
+            for (int v = 0; v < n; v++) {
+                if (partition[v]) mask |= 1 << v;
+            }
+            assertEquals(expected, cutWeight(mg, mask));
+        }
+    }
+
+    private static boolean[] negate(boolean[] a) {
+        boolean[] ret = new boolean[a.length];
+        for (int i = 0; i < a.length; i++) {
+            ret[i] = !a[i];
+        }
+        return ret;
+    }
+
+    private static int cutWeight(MatrixGraph g, int mask) {
+        int ret = 0;
+        for (int i = 0; i < g.n; i++) {
+            for (int j = 0; j < g.n; j++) {
+                if ((mask >> i & 1) == 1 && (mask >> j & 1) == 0 && g.edges[i][j] != null) {
+                    ret += g.edges[i][j].cost;
+                }
+            }
+        }
+        return ret;
+    }
+
     @Test
     public void testBipartiteMatching() {
         AllGraph g = makeGraph("12 "
@@ -339,6 +749,47 @@ public class GraphsTest {
         assertEquals(60, minCostFlowWithPrimalDual(multiples.flowAdjGraph, 0, 1, 30));
     }
 
+    @Test
+    public void testGraphStats() {
+        AllGraph g = standardWaightedGraph;
+        GraphStats stats = new GraphStats();
+        assertArrayEquals(dijkstra(g.adjGraph, 0), dijkstraSub(g.adjGraph, 0, -1, null,
+                stats));
+        assertEquals(stats.heapPushes, stats.heapPops);
+        assertEquals(stats.relaxations + 1, stats.heapPushes);
+        assertEquals(stats.heapPops - 7, stats.stalePops);  // 7 nodes are reachable
+        assertTrue(stats.searchNanos >= 0);
+
+        stats.reset();
+        dijkstraSub(g.matrixGraph, 0, -1, null, stats);
+        assertEquals(stats.relaxations + 1, stats.heapPushes);
+        assertEquals(stats.heapPops - 7, stats.stalePops);
+
+        stats.reset();
+        assertArrayEquals(bellmanFord(g.edgeGraph, 0), bellmanFord(g.edgeGraph, 0, stats));
+        assertTrue(stats.relaxations >= 6);
+        assertEquals(0, stats.heapPushes);
+
+        AllGraph multiples = makeGraph("2 " + "0 1 10  0 1 10 0 1 20  ", false, true);
+        stats.reset();
+        assertEquals(40, edmondsKarp(multiples.flowAdjGraph, 0, 1, stats));
+        assertEquals(3, stats.augmentingPaths);
+
+        stats.reset();
+        assertEquals(94, minCostFlowWithPrimalDual(standardCostFlowGraph.flowAdjGraph, 0,
+                7, 9, stats));
+        assertTrue(stats.augmentingPaths > 0);
+        assertEquals(stats.heapPushes, stats.heapPops);
+
+        stats.reset();
+        standardCostFlowGraph.flowAdjGraph.resetFlow();
+        assertEquals(94, minCostFlowWithBellmanFord(standardCostFlowGraph.flowAdjGraph, 0,
+                7, 9, stats));
+        assertTrue(stats.augmentingPaths > 0);
+        assertTrue(stats.relaxations > 0);
+        assertEquals(0, stats.heapPushes);
+    }
+
     @Test
     public void testDecomposeIntoStronglyConnectedComponents() {
         int[] components = new int[standardWaightedGraph.n];
@@ -377,6 +828,164 @@ public class GraphsTest {
         assertTrue(scc.topologicalOrder[1] != scc.topologicalOrder[2]);
     }
 
+    @Test
+    public void testLowlink() {
+        // 0-1-2-0の三角形、2-3の橋、3-4-5-3の三角形、5-6の橋、孤立点7、1-8の多重辺
+        AllGraph g = makeGraph("9  0 1  1 2  2 0  2 3  3 4  4 5  5 3  5 6  1 8  1 8", false,
+                false, true);
+        Lowlink ll = new Lowlink(g.adjGraph);
+        assertEquals(2, ll.numBridges);
+        assertEquals(4, ll.numArticulations);
+        assertEquals("[false, true, true, true, false, true, false, false, false]",
+                Arrays.toString(ll.isArticulation));
+        assertEquals(4, ll.numTwoEdgeComponents);
+        assertEquals(ll.twoEdgeComponent[0], ll.twoEdgeComponent[8]);
+        assertTrue(ll.twoEdgeComponent[2] != ll.twoEdgeComponent[3]);
+        assertEquals(6, ll.numBlocks);  // {0,1,2}, {1,8}, {2,3}, {3,4,5}, {5,6}, {7}
+        int[] cutNode = new int[9];
+        AdjGraph tree = ll.blockCutTree(cutNode);
+        assertEquals(10, tree.n);
+        assertEquals(-1, cutNode[0]);
+        assertEquals(2, tree.edges[cutNode[3]].size());
+
+        Random random = new Random(4747);
+        for (int iter = 0; iter < 200; iter++) {
+            int n = random.nextInt(12) + 1;
+            int m = random.nextInt(18);
+            int[][] es = new int[m][];
+            AdjGraph rg = new AdjGraph(n);
+            for (int i = 0; i < m; i++) {
+                es[i] = new int[] { random.nextInt(n), random.nextInt(n) };
+                rg.addEdge(new Edge(es[i][0], es[i][1], 1));
+            }
+            ll = new Lowlink(rg);
+            int base = countComponents(n, es, -1, -1);
+
+            int bridges = 0;
+            for (int i = 0; i < m; i++) {
+                if (countComponents(n, es, i, -1) > base) bridges++;
+            }
+            assertEquals(bridges, ll.numBridges);
+            for (int i = 0; i < ll.numBridges; i++) {
+                assertTrue(ll.twoEdgeComponent[ll.bridgeFrom[i]] != ll.twoEdgeComponent[ll
+                        .bridgeTo[i]]);
+            }
+            for (int v = 0; v < n; v++) {
+                // 頂点vを取り除くと、v自身の分を除いて成分数が増えるか
+                boolean isolated = true;
+                for (int[] e : es)
+                    isolated &= e[0] != v && e[1] != v;
+                int without = countComponents(n, es, -1, v) - 1;
+                assertEquals(without > base - (isolated ? 1 : 0), ll.isArticulation[v]);
+            }
+            tree = ll.blockCutTree(new int[n]);
+            int treeEdges = 0;
+            for (int v = 0; v < tree.n; v++)
+                treeEdges += tree.edges[v].size();
+            assertEquals(tree.n - base, treeEdges / 2);  // 連結成分ごとに木になる
+        }
+
+        AdjGraph path = new AdjGraph(300000);  // 再帰だとスタックが溢れる深さ
+        for (int v = 0; v + 1 < path.n; v++)
+            path.addEdge(new Edge(v, v + 1, 1));
+        ll = new Lowlink(path);
+        assertEquals(path.n - 1, ll.numBridges);
+        assertEquals(path.n - 2, ll.numArticulations);
+        assertEquals(path.n - 1, ll.numBlocks);
+    }
+
+    /**
+     * @return 枝ignoredEdgeと頂点ignoredVertexに接続する枝を使わないときの連結成分数
+     */
+    private static int countComponents(int n, int[][] es, int ignoredEdge, int ignoredVertex) {
+        DataStructures.UnionFind uf = new DataStructures.UnionFind(n);
+        int count = n;
+        for (int i = 0; i < es.length; i++) {
+            if (i == ignoredEdge || es[i][0] == ignoredVertex || es[i][1] == ignoredVertex) {
+                continue;
+            }
+            if (!uf.same(es[i][0], es[i][1])) {
+                uf.unite(es[i][0], es[i][1]);
+                count--;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testIterativeStronglyConnectedComponents() {
+        int[] components = new int[standardWaightedGraph.n];
+        assertEquals(2, decomposeIntoStronglyConnectedComponents(new CsrGraph(
+                standardWaightedGraph.adjGraph), components));
+        assertArrayEquals(new int[] { 1, 1, 1, 1, 1, 1, 0, 1 }, components);
+
+        AllGraph straightTree = makeGraph("6  0 1  1 2  2 0  3 0  2 4  4 5", false, false);
+        assertEquals(4, decomposeIntoStronglyConnectedComponents(new CsrGraph(
+                straightTree.adjGraph), components));
+        assertArrayEquals(new int[] { 1, 1, 1, 0, 2, 3 }, Arrays.copyOf(components, 6));
+
+        AdjGraph g = new AdjGraph(3000);
+        new GraphGenerators(7).erdosRenyi(GraphGenerators.sinkOf(g, false), 3000, 3300);
+        components = new int[3000];
+        int k = decomposeIntoStronglyConnectedComponents(new CsrGraph(g), components);
+        assertEquals(new StronglyConnectedComponents(g).components.size(), k);
+        for (int v = 0; v < g.n; v++) {
+            for (Edge e : g.edges[v])
+                assertTrue(components[v] <= components[e.to]);
+        }
+    }
+
+    @Test
+    public void testTwoSat() {
+        TwoSat sat = new TwoSat(3);
+        sat.addClause(0, 1);  // x0 ∨ x1
+        sat.addClause(~0, 2);  // ¬x0 ∨ x2
+        sat.addClause(~1, ~2);  // ¬x1 ∨ ¬x2
+        sat.addImplication(2, 0);  // x2 → x0
+        boolean[] x = sat.solve();
+        assertEquals("[true, false, true]", Arrays.toString(x));
+        sat.addClause(~0, ~0);
+        assertEquals("[false, true, false]", Arrays.toString(sat.solve()));
+        sat.addClause(~1, ~1);
+        assertNull(sat.solve());
+
+        Random random = new Random(4747);
+        for (int iter = 0; iter < 300; iter++) {
+            int n = random.nextInt(6) + 1;
+            int m = random.nextInt(12);
+            sat = new TwoSat(n);
+            int[][] clauses = new int[m][2];
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < 2; j++) {
+                    int v = random.nextInt(n);
+                    clauses[i][j] = random.nextBoolean() ? v : ~v;
+                }
+                sat.addClause(clauses[i][0], clauses[i][1]);
+            }
+            boolean satisfiable = false;
+            for (int mask = 0; mask < 1 << n; mask++) {
+                satisfiable |= satisfies(clauses, mask);
+            }
+            x = sat.solve();
+            assertEquals(satisfiable, x != null);
+            if (x == null) continue;
+            int mask = 0;
+            for (int i = 0; i < n; i++)
+                if (x[i]) mask |= 1 << i;
+            assertTrue(satisfies(clauses, mask));
+        }
+    }
+
+    private static boolean satisfies(int[][] clauses, int mask) {
+        for (int[] c : clauses) {
+            boolean ok = false;
+            for (int lit : c)
+                ok |= lit >= 0 ? (mask >> lit & 1) == 1 : (mask >> ~lit & 1) == 0;
+            if (!ok) return false;
+        }
+        return true;
+    }
+
     @Test
     public void testViterbi() {
         AllGraph aDag = makeGraph("7  5 3 7  3 1 3  3 2 6  1 2 1  1 6 3  2 4 4  2 0 8  "
@@ -400,6 +1009,94 @@ public class GraphsTest {
         assertEquals(INF, viterbi(aDisConnectedDag.adjGraph, 2, 0, components));
     }
 
+    @Test
+    public void testDagPaths() {
+        AllGraph aDag = makeGraph("7  5 3 7  3 1 3  3 2 6  1 2 1  1 6 3  2 4 4  2 0 8  "
+                + "6 4 1  6 0 2  4 0 9", true, false);
+        int[] sorted = topologicalSort(aDag.adjGraph);
+        assertArrayEquals(new int[] { 5, 3, 1, 2, 6, 4, 0 }, sorted);
+        assertSame(sorted, topologicalSort(aDag.adjGraph));
+
+        DagPaths shortest = new DagPaths(aDag.adjGraph, false);
+        assertEquals(15, shortest.run(5)[0]);
+        assertArrayEquals(new int[] { 8, 3, 4, 0, 7, INF, 6 }, shortest.run(3));
+        assertEquals(Arrays.asList(3, 1, 6, 0), getPath(shortest.prev, 3, 0));
+        assertArrayEquals(new int[] { 5, 0, 0, INF, 4, INF, 3 }, shortest.run(1, 2));
+
+        DagPaths longest = new DagPaths(aDag.adjGraph, true);
+        assertEquals(26, longest.run(5)[0]);
+        assertEquals(Arrays.asList(5, 3, 2, 4, 0), getPath(longest.prev, 5, 0));
+        assertEquals(10, longest.run(3)[4]);
+        assertEquals(-INF, longest.run(3)[5]);
+
+        aDag.addArc(new Edge(0, 5, 1));
+        assertNull(topologicalSort(aDag.adjGraph));
+        try {
+            new DagPaths(aDag.adjGraph, false);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+        }
+
+        AllGraph grown = makeGraph("3  0 1 1", true, false);
+        DagPaths paths = new DagPaths(grown.adjGraph, false);
+        assertArrayEquals(new int[] { 0, 1, INF }, paths.run(0));
+        grown.addArc(new Edge(2, 0, 1));
+        assertArrayEquals(new int[] { 1, 2, 0 }, paths.run(2));
+        grown.addArc(new Edge(1, 2, 1));
+        try {
+            paths.run(0);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testEulerianTrail() {
+        AllGraph g = makeGraph("5  0 1  1 2  2 0  0 3  3 4  4 0  1 1", false, false);
+        assertValidTrail(g.edgeGraph, eulerianTrail(g.edgeGraph, true), true);
+        EdgeGraph csrOrder = new EdgeGraph(g.n);  // AdjGraphの枝の番号は隣接リストを並べた順
+        for (int v = 0; v < g.n; v++) {
+            for (Edge e : g.adjGraph.edges[v])
+                csrOrder.addArc(e);
+        }
+        assertValidTrail(csrOrder, eulerianTrail(g.adjGraph), true);
+        g.addArc(new Edge(2, 4, 1));
+        int[] trail = eulerianTrail(g.edgeGraph, true);
+        assertValidTrail(g.edgeGraph, trail, true);
+        assertEquals(2, g.edgeGraph.edges.get(trail[0]).from);
+        assertEquals(4, g.edgeGraph.edges.get(trail[trail.length - 1]).to);
+        g.addArc(new Edge(2, 4, 1));
+        assertNull(eulerianTrail(g.edgeGraph, true));
+
+        g = makeGraph("6  0 1  1 2  2 0  1 3  3 3  3 1  4 5", false, false, true);
+        assertNull(eulerianTrail(g.edgeGraph, false));  // 非連結
+        g = makeGraph("5  0 1  1 2  2 0  1 3  3 3  3 1  2 4", false, false, true);
+        trail = eulerianTrail(g.edgeGraph, false);
+        assertValidTrail(g.edgeGraph, trail, false);
+        assertEquals(4, g.edgeGraph.edges.get(trail[trail.length - 1]).to);
+        assertEquals(0, eulerianTrail(noedges.edgeGraph, false).length);
+
+        EdgeGraph cycle = new EdgeGraph(200000);  // 再帰だとスタックが溢れる長さ
+        for (int v = 0; v < 200000; v++)
+            cycle.addEdge(new Edge(v, (v + 1) % 200000, 1));
+        assertValidTrail(cycle, eulerianTrail(cycle, false), false);
+    }
+
+    private static void assertValidTrail(EdgeGraph g, int[] trail, boolean directed) {
+        boolean[] used = new boolean[g.edges.size()];
+        for (int i = 0; i < trail.length; i++) {
+            Edge e = g.edges.get(trail[i]);
+            if (i > 0) assertEquals(g.edges.get(trail[i - 1]).to, e.from);
+            assertFalse(used[trail[i]]);
+            used[trail[i]] = true;
+            if (!directed) used[trail[i] ^ 1] = true;
+        }
+        for (boolean u : used)
+            assertTrue(u);
+    }
+
     @Test(timeout = 8000)
     @Ignore("重いので全体テストでは無視")
     public void testBigRandomGraph() {